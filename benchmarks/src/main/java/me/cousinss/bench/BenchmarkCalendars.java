@@ -0,0 +1,81 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarBackend;
+import me.cousinss.Date;
+import me.cousinss.IdAllocator;
+import me.cousinss.Question;
+import me.cousinss.ReviewCalendar;
+import me.cousinss.SpacedQuestion;
+import me.cousinss.SpacedRepetition;
+import me.cousinss.StaticSpacedRepetition;
+
+import java.util.SplittableRandom;
+
+//Shared fixtures: the schedules under test and calendars pre-filled to a given number of scheduled reviews.
+final class BenchmarkCalendars {
+
+    //Questions asked per day on average in a filled calendar, leaving headroom under MAX_PER_DATE.
+    static final int LOAD_PER_DAY = 32;
+    static final int MAX_PER_DATE = 64;
+
+    private BenchmarkCalendars() {}
+
+    static SpacedRepetition schedule(int steps) {
+        return switch(steps) {
+            case 6 -> new StaticSpacedRepetition(0, 1, 2, 5, 8, 14);
+            //Roughly geometric spacing, out to about a year.
+            case 20 -> new StaticSpacedRepetition(0, 1, 2, 3, 5, 7, 10, 14, 19, 25, 33, 43, 56, 72, 93, 120, 155, 200, 260, 340);
+            default -> throw new IllegalArgumentException("No " + steps + "-step schedule");
+        };
+    }
+
+    //The number of repetitions in the (finite) schedule.
+    static int steps(SpacedRepetition schedule) {
+        int steps = 0;
+        while(schedule.offsetDays(steps) != SpacedRepetition.NONE) {
+            steps++;
+        }
+        return steps;
+    }
+
+    //The number of days over which lessons are posted so that the calendar averages LOAD_PER_DAY.
+    static int days(int reviews) {
+        return Math.max(1, reviews / LOAD_PER_DAY);
+    }
+
+    static ReviewCalendar empty(CalendarBackend backend) {
+        return empty(backend, false);
+    }
+
+    static ReviewCalendar empty(CalendarBackend backend, boolean lazy) {
+        return new ReviewCalendar(MAX_PER_DATE, new Date(1 << 30), backend, lazy) {
+            @Override
+            public boolean abandonRepair(SpacedQuestion question, Date date, int daysLate) {
+                return daysLate > 14;
+            }
+        };
+    }
+
+    //A calendar holding about the given number of scheduled reviews, with question bases spread evenly over days(reviews).
+    static ReviewCalendar filled(int reviews, CalendarBackend backend, SpacedRepetition schedule, IdAllocator ids, SplittableRandom random) {
+        return filled(reviews, backend, false, schedule, ids, random);
+    }
+
+    static ReviewCalendar filled(int reviews, CalendarBackend backend, boolean lazy, SpacedRepetition schedule, IdAllocator ids,
+                                 SplittableRandom random) {
+        ReviewCalendar calendar = empty(backend, lazy);
+        int steps = steps(schedule);
+        int days = days(reviews);
+        for(int q = 0; q < reviews / steps; q++) {
+            int day = random.nextInt(days);
+            calendar.addWithSpacing(new Question("Q" + q, day, ids), new Date(day), schedule);
+        }
+        return calendar;
+    }
+}
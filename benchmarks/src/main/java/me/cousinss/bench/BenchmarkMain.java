@@ -0,0 +1,26 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//The benchmark jar's entry point: the usual JMH command line, with the GC profiler always attached so every run reports
+//gc.alloc.rate.norm (bytes allocated per operation) next to the timings.
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarRegistry;
+import me.cousinss.Date;
+import me.cousinss.IdAllocator;
+import me.cousinss.Question;
+import me.cousinss.ReviewCalendar;
+import me.cousinss.SpacedQuestion;
+import me.cousinss.SpacedRepetition;
+import me.cousinss.StaticSpacedRepetition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Contention on a CalendarRegistry shared by 1, 8 and 32 threads. Each operation picks a random learner and, mirroring a
+//learner's day, mostly reads a day's queue, sometimes skips part of it and sometimes posts a question. With learners spread
+//across the stripes, throughput should scale with the thread count up to the number of cores.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarRegistryBenchmark {
+
+    private static final int DAYS = 60;
+    private static final SpacedRepetition SCHEDULE = new StaticSpacedRepetition(0, 1, 2, 5, 8, 14);
+
+    @State(Scope.Benchmark)
+    public static class Registry {
+
+        @Param({"100000"})
+        private int learners;
+
+        private CalendarRegistry registry;
+        private IdAllocator ids;
+
+        @Setup
+        public void fill() {
+            ids = new IdAllocator(0);
+            registry = new CalendarRegistry(learner -> new ReviewCalendar(5, new Date(DAYS)) {
+                @Override
+                public boolean abandonRepair(SpacedQuestion question, Date date, int daysLate) {
+                    return daysLate > 14;
+                }
+            });
+            SplittableRandom random = new SplittableRandom(0);
+            for(long learner = 0; learner < learners; learner++) {
+                for(int q = 0; q < 4; q++) {
+                    int day = random.nextInt(DAYS);
+                    registry.addWithSpacing(learner, new Question("Q" + q, day, ids), new Date(day), SCHEDULE);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Learner {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    private static int operate(Registry state, Learner learner) {
+        SplittableRandom random = learner.random;
+        long learnerID = random.nextLong(state.learners);
+        int day = random.nextInt(DAYS);
+        Date date = new Date(day);
+        int roll = random.nextInt(16);
+        if(roll == 0) {
+            state.registry.addWithSpacing(learnerID, new Question("Q", day, state.ids), date, SCHEDULE);
+            return 0;
+        }
+        if(roll == 1) {
+            //Counted and skipped under one hold of the learner's lock, so no other thread can shrink the day in between.
+            return state.registry.withCalendar(learnerID, calendar -> {
+                int count = calendar.count(date);
+                if(count > 1) {
+                    calendar.skip(date, count - 1);
+                }
+                return count;
+            });
+        }
+        return state.registry.getForDate(learnerID, date).size();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int mixedThreads1(Registry state, Learner learner) {
+        return operate(state, learner);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int mixedThreads8(Registry state, Learner learner) {
+        return operate(state, learner);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int mixedThreads32(Registry state, Learner learner) {
+        return operate(state, learner);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarRegistry;
+import me.cousinss.Date;
+import me.cousinss.IdAllocator;
+import me.cousinss.LessonFanout;
+import me.cousinss.Question;
+import me.cousinss.ReviewCalendar;
+import me.cousinss.SpacedQuestion;
+import me.cousinss.SpacedRepetition;
+import me.cousinss.StaticSpacedRepetition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+//Enrolling a whole cohort in a new 5-question lesson through a LessonFanout, into a fresh registry each time so every
+//learner's calendar is created along the way, as on a lesson's first day.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FanoutBenchmark {
+
+    private static final int DAYS = 120;
+    private static final SpacedRepetition SCHEDULE = new StaticSpacedRepetition(0, 1, 2, 5, 8, 14, 30, 60);
+
+    @Param({"50000"})
+    private int learners;
+
+    @Param({"1", "4"})
+    private int workers;
+
+    private long[] cohort;
+    private List<Question> lesson;
+    private CalendarRegistry registry;
+    private LessonFanout fanout;
+
+    @Setup
+    public void createCohort() {
+        cohort = LongStream.range(0, learners).toArray();
+        IdAllocator ids = new IdAllocator(0);
+        lesson = new ArrayList<>();
+        for(int q = 0; q < 5; q++) {
+            lesson.add(new Question("Q" + q, 0, ids));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createRegistry() {
+        registry = new CalendarRegistry(learner -> new ReviewCalendar(5, new Date(DAYS)) {
+            @Override
+            public boolean abandonRepair(SpacedQuestion question, Date date, int daysLate) {
+                return daysLate > 14;
+            }
+        });
+        fanout = new LessonFanout(registry, workers, LessonFanout.DEFAULT_BATCH_SIZE, LessonFanout.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeFanout() {
+        fanout.close();
+    }
+
+    @Benchmark
+    public LessonFanout.Report enroll() throws InterruptedException {
+        return fanout.enroll(lesson, new Date(0), SCHEDULE, cohort);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarBackend;
+import me.cousinss.Date;
+import me.cousinss.IdAllocator;
+import me.cousinss.ReviewCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//What-if branching: forking a calendar holding the given number of reviews, alone and followed by skipping half of a random
+//day, which pays for the fork's first write. The base calendar is never written, so is only built once.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForkBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int reviews;
+
+    @Param({"HASHED", "ARRAY"})
+    private CalendarBackend backend;
+
+    private ReviewCalendar base;
+    private SplittableRandom random;
+    private int days;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        random = new SplittableRandom(0);
+        base = BenchmarkCalendars.filled(reviews, backend, BenchmarkCalendars.schedule(6), new IdAllocator(0), random);
+        days = BenchmarkCalendars.days(reviews);
+    }
+
+    @Benchmark
+    public ReviewCalendar fork() {
+        return base.fork();
+    }
+
+    @Benchmark
+    public ReviewCalendar forkAndSkip() {
+        ReviewCalendar fork = base.fork();
+        Date date = new Date(random.nextInt(days));
+        int count = fork.count(date);
+        if(count > 1) {
+            fork.skip(date, count / 2);
+        }
+        return fork;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarBackend;
+import me.cousinss.Date;
+import me.cousinss.IdAllocator;
+import me.cousinss.Question;
+import me.cousinss.ReviewCalendar;
+import me.cousinss.SpacedRepetition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Insert-heavy workload: addWithSpacing of a new question into a calendar already holding the given number of reviews.
+//The calendar is rebuilt every iteration so it does not drift far from its nominal size. A lazy calendar defers the
+//repetitions that fall past the days read so far, so its inserts are mostly queued; it is measured unread.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int reviews;
+
+    @Param({"6", "20"})
+    private int steps;
+
+    @Param({"HASHED", "ARRAY"})
+    private CalendarBackend backend;
+
+    @Param({"false", "true"})
+    private boolean lazy;
+
+    private SpacedRepetition schedule;
+    private ReviewCalendar calendar;
+    private IdAllocator ids;
+    private SplittableRandom random;
+    private int days;
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        schedule = BenchmarkCalendars.schedule(steps);
+        ids = new IdAllocator(0);
+        random = new SplittableRandom(0);
+        calendar = BenchmarkCalendars.filled(reviews, backend, lazy, schedule, ids, random);
+        days = BenchmarkCalendars.days(reviews);
+    }
+
+    @Benchmark
+    public ReviewCalendar addWithSpacing() {
+        int day = random.nextInt(days);
+        calendar.addWithSpacing(new Question("Q", day, ids), new Date(day), schedule);
+        return calendar;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarBackend;
+import me.cousinss.Date;
+import me.cousinss.IdAllocator;
+import me.cousinss.ReviewCalendar;
+import me.cousinss.ReviewVisitor;
+import me.cousinss.SpacedQuestion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Read-heavy workload: the dashboard's "today's queue" polling, as getForDate, forEachOnDate and count over random days (including days
+//past the filled range, which are empty) of a calendar holding the given number of reviews, and the forecasting reads, as
+//countBetween over a random 30-day window and latestDate.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int reviews;
+
+    @Param({"HASHED", "ARRAY"})
+    private CalendarBackend backend;
+
+    private ReviewCalendar calendar;
+    private SplittableRandom random;
+    private int days;
+    //Created once, so visiting a day allocates nothing in the benchmark either.
+    private ReviewVisitor visitor;
+    private long visited;
+
+    @Setup
+    public void fill() {
+        visitor = (question, spaceID, repetition) -> visited += question.getId() + spaceID;
+        random = new SplittableRandom(0);
+        calendar = BenchmarkCalendars.filled(reviews, backend, BenchmarkCalendars.schedule(6), new IdAllocator(0), random);
+        days = BenchmarkCalendars.days(reviews);
+    }
+
+    private Date randomDay() {
+        return new Date(random.nextInt(days + days / 4 + 1));
+    }
+
+    @Benchmark
+    public void getForDate(Blackhole blackhole) {
+        for(SpacedQuestion q : calendar.getForDate(randomDay())) {
+            blackhole.consume(q);
+        }
+    }
+
+    @Benchmark
+    public long forEachOnDate() {
+        calendar.forEachOnDate(randomDay(), visitor);
+        return visited;
+    }
+
+    @Benchmark
+    public int count() {
+        return calendar.count(randomDay());
+    }
+
+    @Benchmark
+    public int countBetween() {
+        Date from = randomDay();
+        return calendar.countBetween(from, new Date(from.datePoint() + 30));
+    }
+
+    @Benchmark
+    public Date latestDate() {
+        return calendar.latestDate();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.MonteCarloSimulation;
+import me.cousinss.SimulationClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+//The full drawAnalysis-style simulation: App's 7x10 (feedChance, skipChance) grid with a 6-step schedule, one iteration per
+//cell, on a single-threaded pool so the numbers measure the calendar rather than the machine's core count. The ten-year
+//horizon shows the event-driven clock against the daily one where most days are empty.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({"80", "365", "3650"})
+    private int endDate;
+
+    @Param({"DAILY", "EVENTS"})
+    private SimulationClock clock;
+
+    private ForkJoinPool pool;
+
+    @Setup
+    public void createPool() {
+        pool = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public MonteCarloSimulation.Result drawAnalysis() {
+        return new MonteCarloSimulation(BenchmarkCalendars.schedule(6), 5, 0.4f, endDate, 1, MonteCarloSimulation.steps(0.1f, 0.8, 0.1f),
+                MonteCarloSimulation.steps(0, 0.5, 0.05f), 0, clock).run(pool);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarBackend;
+import me.cousinss.Date;
+import me.cousinss.IdAllocator;
+import me.cousinss.ReviewCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Skip-heavy workload: skipping the second half of a random day's queue, in a calendar holding the given number of reviews.
+//Skips push load forward, so the calendar is rebuilt every iteration.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkipBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int reviews;
+
+    @Param({"HASHED", "ARRAY"})
+    private CalendarBackend backend;
+
+    private ReviewCalendar calendar;
+    private SplittableRandom random;
+    private int days;
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        random = new SplittableRandom(0);
+        calendar = BenchmarkCalendars.filled(reviews, backend, BenchmarkCalendars.schedule(6), new IdAllocator(0), random);
+        days = BenchmarkCalendars.days(reviews);
+    }
+
+    @Benchmark
+    public int skipHalfDay() {
+        Date date = new Date(random.nextInt(days));
+        int count = calendar.count(date);
+        if(count > 1) {
+            calendar.skip(date, count / 2);
+        }
+        return count;
+    }
+}
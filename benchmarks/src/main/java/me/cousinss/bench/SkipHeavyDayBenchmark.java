@@ -0,0 +1,73 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarBackend;
+import me.cousinss.Date;
+import me.cousinss.Question;
+import me.cousinss.ReviewCalendar;
+import me.cousinss.SpacedQuestion;
+import me.cousinss.SpacedRepetition;
+import me.cousinss.StaticSpacedRepetition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+//The worst case for duplicate handling: every question is reviewed daily, so skipping a whole day lands each question on
+//tomorrow next to its own later repetition, and the kicked repetitions cascade through every following day.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkipHeavyDayBenchmark {
+
+    private static final int SCHEDULE_LENGTH = 20;
+    private static final SpacedRepetition DAILY = new StaticSpacedRepetition(IntStream.range(0, SCHEDULE_LENGTH).toArray());
+
+    @Param({"100", "1000"})
+    private int questionsPerDay;
+
+    @Param({"HASHED", "ARRAY"})
+    private CalendarBackend backend;
+
+    private ReviewCalendar calendar;
+
+    @Setup(Level.Invocation)
+    public void fillCalendar() {
+        //No cap on the day size, so every delay in the benchmark comes from a duplicate.
+        calendar = new ReviewCalendar(Integer.MAX_VALUE, new Date(2 * SCHEDULE_LENGTH), backend) {
+            @Override
+            public boolean abandonRepair(SpacedQuestion question, Date date, int daysLate) {
+                return false;
+            }
+        };
+        Date start = new Date(0);
+        for(int q = 0; q < questionsPerDay; q++) {
+            calendar.addWithSpacing(new Question("Q" + q, 0), start, DAILY);
+        }
+    }
+
+    @Benchmark
+    public ReviewCalendar skipWholeDay() {
+        calendar.skip(new Date(0), 0);
+        return calendar;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.CalendarBackend;
+import me.cousinss.CalendarSnapshot;
+import me.cousinss.IdAllocator;
+import me.cousinss.ReviewCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Snapshot and restore of a whole calendar holding the given number of reviews, through an in-memory channel so the numbers
+//measure the encoding rather than the disk.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int reviews;
+
+    @Param({"HASHED", "ARRAY"})
+    private CalendarBackend backend;
+
+    private ReviewCalendar calendar;
+    private ByteArrayOutputStream written;
+    private byte[] snapshot;
+
+    @Setup
+    public void fill() throws IOException {
+        calendar = BenchmarkCalendars.filled(reviews, backend, BenchmarkCalendars.schedule(20), new IdAllocator(0), new SplittableRandom(0));
+        written = new ByteArrayOutputStream();
+        CalendarSnapshot.write(calendar, Channels.newChannel(written));
+        snapshot = written.toByteArray();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        written.reset();
+        CalendarSnapshot.write(calendar, Channels.newChannel(written));
+        return written.size();
+    }
+
+    @Benchmark
+    public ReviewCalendar read() throws IOException {
+        ReviewCalendar restored = BenchmarkCalendars.empty(backend);
+        CalendarSnapshot.read(Channels.newChannel(new ByteArrayInputStream(snapshot)), restored);
+        return restored;
+    }
+}
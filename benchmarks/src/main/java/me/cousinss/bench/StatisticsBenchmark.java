@@ -0,0 +1,59 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.bench;
+
+import me.cousinss.FloatStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//FloatStatistics.moments over a sweep's worth of trial results, on the SIMD kernels (in a JVM started with the Vector API
+//module) and on the scalar fallback (in one without).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StatisticsBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int trials;
+
+    private float[] values;
+
+    @Setup
+    public void fill() {
+        SplittableRandom random = new SplittableRandom(0);
+        values = new float[trials];
+        for(int i = 0; i < trials; i++) {
+            values[i] = (float) random.nextDouble(0, 20);
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public FloatStatistics.Moments vector() {
+        return FloatStatistics.moments(values);
+    }
+
+    @Benchmark
+    @Fork(1)
+    public FloatStatistics.Moments scalar() {
+        return FloatStatistics.moments(values);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+//How likely a repetition is to be abandoned rather than pushed on to the next day, when its day overflows, as a function
+//of how late it is and which repetition it is. A policy is compiled into an AbandonTable
+//before a calendar uses it (see ReviewCalendar.setAbandonPolicy), so it is only ever evaluated once per table cell.
+@FunctionalInterface
+public interface AbandonPolicy {
+
+    //The probability, from 0 (never) to 1 (always), of abandoning repetition spaceID when it is daysLate (>= 0) days late.
+    double probability(int daysLate, int spaceID);
+
+    //The most repetitions of any one lesson a calendar abandons; past it, the lesson's repetitions are pushed on instead.
+    default int lessonQuota() {
+        return Integer.MAX_VALUE;
+    }
+
+    //This policy, but abandoning at most quota repetitions of any one lesson in a calendar.
+    default AbandonPolicy withLessonQuota(int quota) {
+        if(quota < 0) throw new IllegalArgumentException();
+        AbandonPolicy policy = this;
+        return new AbandonPolicy() {
+            @Override
+            public double probability(int daysLate, int spaceID) {
+                return policy.probability(daysLate, spaceID);
+            }
+
+            @Override
+            public int lessonQuota() {
+                return Math.min(quota, policy.lessonQuota());
+            }
+        };
+    }
+
+    static AbandonPolicy never() {
+        return (daysLate, spaceID) -> 0;
+    }
+
+    //Abandons anything more than maxDaysLate days late.
+    static AbandonPolicy threshold(int maxDaysLate) {
+        return (daysLate, spaceID) -> daysLate > maxDaysLate ? 1 : 0;
+    }
+
+    //The simulation's model: past graceDays late, a repetition is abandoned when a uniform draw scaled by
+    //(daysLate - graceDays) / graceDays passes 1/2, so the chance rises smoothly from 0 at 1.5 * graceDays late towards 1.
+    static AbandonPolicy smoothed(int graceDays) {
+        if(graceDays <= 0) throw new IllegalArgumentException();
+        return (daysLate, spaceID) -> daysLate <= graceDays ? 0 : Math.max(0, 1 - graceDays / 2.0 / (daysLate - graceDays));
+    }
+
+    //Abandons repetition spaceID once it is more than maxDaysLate[spaceID] days late (the last entry covering every later
+    //repetition), so that giving early repetitions longer lets a new question settle before its later ones are given up on.
+    static AbandonPolicy bySpaceID(int... maxDaysLate) {
+        if(maxDaysLate.length == 0) throw new IllegalArgumentException();
+        int[] limits = maxDaysLate.clone();
+        return (daysLate, spaceID) -> daysLate > limits[Math.min(spaceID, limits.length - 1)] ? 1 : 0;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.SplittableRandom;
+
+//An AbandonPolicy evaluated ahead of time into a table indexed by (daysLate, spaceID), so a decision in the repair loop is an
+//array read, plus one random draw only where the policy is neither 0 nor 1. Past the table's last row or column, the last
+//one applies, so a policy should have settled by then. A table is immutable and may be shared by any number of calendars.
+public final class AbandonTable {
+
+    public static final int DEFAULT_MAX_DAYS_LATE = 365;
+    public static final int DEFAULT_MAX_SPACE_ID = 15;
+
+    //A threshold at which every draw abandons, so no draw is made.
+    private static final int ALWAYS = Integer.MAX_VALUE;
+
+    public static AbandonTable compile(AbandonPolicy policy) {
+        return compile(policy, DEFAULT_MAX_DAYS_LATE, DEFAULT_MAX_SPACE_ID);
+    }
+
+    public static AbandonTable compile(AbandonPolicy policy, int maxDaysLate, int maxSpaceID) {
+        if(maxDaysLate < 0 || maxSpaceID < 0) throw new IllegalArgumentException();
+        int columns = maxSpaceID + 1;
+        int[] thresholds = new int[(maxDaysLate + 1) * columns];
+        for(int daysLate = 0; daysLate <= maxDaysLate; daysLate++) {
+            for(int spaceID = 0; spaceID < columns; spaceID++) {
+                double p = policy.probability(daysLate, spaceID);
+                if(!(p >= 0 && p <= 1)) throw new IllegalArgumentException("Probability " + p + " at " + daysLate + " days late, spaceID " + spaceID);
+                //A draw of 31 random bits abandons when below the threshold.
+                thresholds[daysLate * columns + spaceID] = (int) Math.min(ALWAYS, Math.round(p * 0x1p31));
+            }
+        }
+        return new AbandonTable(thresholds, maxDaysLate, columns, policy.lessonQuota());
+    }
+
+    private final int[] thresholds;
+    private final int maxDaysLate;
+    private final int columns;
+    private final int lessonQuota;
+
+    private AbandonTable(int[] thresholds, int maxDaysLate, int columns, int lessonQuota) {
+        this.thresholds = thresholds;
+        this.maxDaysLate = maxDaysLate;
+        this.columns = columns;
+        this.lessonQuota = lessonQuota;
+    }
+
+    public int lessonQuota() {
+        return lessonQuota;
+    }
+
+    //Whether to abandon repetition spaceID, daysLate days late, drawing from the random stream only if the policy is uncertain.
+    public boolean abandon(int daysLate, int spaceID, SplittableRandom random) {
+        int row = Math.min(Math.max(daysLate, 0), maxDaysLate);
+        int threshold = thresholds[row * columns + Math.min(spaceID, columns - 1)];
+        return threshold == ALWAYS || (threshold != 0 && random.nextInt() >>> 1 < threshold);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Arrays;
+
+//A schedule that grows one repetition at a time from review outcomes, after SuperMemo's SM-2: each review is graded with a
+//quality from 0 (blackout) to 5 (perfect), which adjusts the question's ease factor and sets the interval to the next
+//repetition. Only the repetitions scheduled so far are known, so a calendar holds one pending repetition of the question
+//rather than the whole schedule (see ReviewCalendar.recordReview).
+//The schedule is the state of a single question: give every question (and every learner) its own instance.
+public class AdaptiveSpacedRepetition implements SpacedRepetition {
+
+    public static final int MIN_QUALITY = 0;
+    //The lowest quality that counts as a pass; anything lower restarts the question's intervals.
+    public static final int PASS_QUALITY = 3;
+    public static final int MAX_QUALITY = 5;
+
+    private static final double INITIAL_EASE = 2.5;
+    private static final double MIN_EASE = 1.3;
+
+    //The offsets of the repetitions scheduled so far; the last is the pending one.
+    private int[] offsets;
+    private int scheduled;
+    private double ease;
+    //The number of passes in a row, and the interval (in days) that led to the pending repetition.
+    private int streak;
+    private int interval;
+
+    public AdaptiveSpacedRepetition() {
+        this.offsets = new int[4];
+        this.scheduled = 1;
+        this.ease = INITIAL_EASE;
+    }
+
+    //Restores a schedule from its state (see CalendarSnapshot).
+    AdaptiveSpacedRepetition(int[] offsets, double ease, int streak, int interval) {
+        this.offsets = Arrays.copyOf(offsets, Math.max(4, offsets.length));
+        this.scheduled = offsets.length;
+        this.ease = ease;
+        this.streak = streak;
+        this.interval = interval;
+    }
+
+    //An independent copy of the schedule's state, for a forked calendar (see ReviewCalendar.fork).
+    AdaptiveSpacedRepetition copy() {
+        return new AdaptiveSpacedRepetition(Arrays.copyOf(offsets, scheduled), ease, streak, interval);
+    }
+
+    @Override
+    public Date apply(Integer n) {
+        return n >= 0 && n < scheduled ? new Date(offsets[n]) : null;
+    }
+
+    @Override
+    public int offsetDays(int n) {
+        return n >= 0 && n < scheduled ? offsets[n] : NONE;
+    }
+
+    //The number of repetitions scheduled so far.
+    public int scheduled() {
+        return scheduled;
+    }
+
+    public double getEase() {
+        return ease;
+    }
+
+    int getStreak() {
+        return streak;
+    }
+
+    int getInterval() {
+        return interval;
+    }
+
+    //Records the review of the pending repetition, held elapsedDays after the question's first-ask date, and schedules the
+    //next repetition, returning its offset. The interval runs from the day the review was actually held, so a late review
+    //is not penalized twice.
+    public int review(int elapsedDays, int quality) {
+        if(quality < MIN_QUALITY || quality > MAX_QUALITY) throw new IllegalArgumentException("Quality " + quality);
+        if(quality < PASS_QUALITY) {
+            streak = 0;
+            interval = 1;
+        } else {
+            streak++;
+            interval = switch(streak) {
+                case 1 -> 1;
+                case 2 -> 6;
+                default -> (int) Math.round(interval * ease);
+            };
+            int miss = MAX_QUALITY - quality;
+            ease = Math.max(MIN_EASE, ease + 0.1 - miss * (0.08 + miss * 0.02));
+        }
+        if(scheduled == offsets.length) {
+            offsets = Arrays.copyOf(offsets, scheduled * 2);
+        }
+        offsets[scheduled] = elapsedDays + interval;
+        return offsets[scheduled++];
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+//A DayStore indexed directly by day offset, with a DayBucket of packed repetitions (8 bytes each) per day.
+class ArrayDayStore implements DayStore {
+
+    private final QuestionTable table;
+    private final DayOrder order;
+    //The datePoint of days[0].
+    private int origin;
+    //The bucket per day offset; null if the day never had one.
+    private DayBucket[] days = new DayBucket[0];
+    //Buckets made by another owner, and the days array itself if shared, are copied before they are written to.
+    private Object owner = new Object();
+    private boolean shared;
+
+    ArrayDayStore(QuestionTable table, DayOrder order) {
+        this.table = table;
+        this.order = order;
+    }
+
+    private DayBucket bucket(int day) {
+        int offset = day - origin;
+        return offset < 0 || offset >= days.length ? null : days[offset];
+    }
+
+    //Returns the offset of the day, growing the days array (at either end) to cover it.
+    private int reserve(int day) {
+        if(days.length == 0) {
+            days = new DayBucket[16];
+            origin = day;
+        }
+        int offset = day - origin;
+        if(offset < 0) {
+            int shift = Math.max(-offset, days.length);
+            DayBucket[] grown = new DayBucket[days.length + shift];
+            System.arraycopy(days, 0, grown, shift, days.length);
+            days = grown;
+            origin -= shift;
+            offset += shift;
+            shared = false;
+        } else if(offset >= days.length) {
+            days = Arrays.copyOf(days, Math.max(offset + 1, days.length * 2));
+            shared = false;
+        }
+        return offset;
+    }
+
+    //The bucket at the offset, ready to be written to by this store, or null if the day has none.
+    private DayBucket writable(int offset) {
+        if(shared) {
+            days = days.clone();
+            shared = false;
+        }
+        DayBucket bucket = days[offset];
+        if(bucket != null && bucket.owner != owner) {
+            bucket = days[offset] = bucket.copy(owner);
+        }
+        return bucket;
+    }
+
+    @Override
+    public boolean hasDay(int day) {
+        return bucket(day) != null;
+    }
+
+    @Override
+    public int size(int day) {
+        DayBucket bucket = bucket(day);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    @Override
+    public void add(int day, long repetition) {
+        int offset = reserve(day);
+        DayBucket bucket = writable(offset);
+        if(bucket == null) {
+            bucket = days[offset] = order.newBucket(owner);
+        }
+        bucket.add(table, repetition);
+    }
+
+    @Override
+    public void addDay(int day) {
+        int offset = reserve(day);
+        if(writable(offset) == null) {
+            days[offset] = order.newBucket(owner);
+        }
+    }
+
+    @Override
+    public long peekLast(int day) {
+        DayBucket bucket = bucket(day);
+        return bucket == null ? QuestionTable.NONE : bucket.last();
+    }
+
+    @Override
+    public long pollLast(int day) {
+        DayBucket bucket = bucket(day);
+        return bucket == null || bucket.size() == 0 ? QuestionTable.NONE : writable(day - origin).pollLast();
+    }
+
+    @Override
+    public long get(int day, int questionId, int spaceID) {
+        DayBucket bucket = bucket(day);
+        int i = bucket == null ? -1 : bucket.find(table, questionId, spaceID);
+        return i < 0 ? QuestionTable.NONE : bucket.stored(i);
+    }
+
+    @Override
+    public int spaceIDOf(int day, int question) {
+        DayBucket bucket = bucket(day);
+        return bucket == null ? -1 : bucket.spaceIDOf(question);
+    }
+
+    @Override
+    public long remove(int day, int questionId, int spaceID) {
+        DayBucket bucket = bucket(day);
+        int i = bucket == null ? -1 : bucket.find(table, questionId, spaceID);
+        return i < 0 ? QuestionTable.NONE : writable(day - origin).removeAt(i);
+    }
+
+    @Override
+    public void forEach(int day, ReviewVisitor visitor) {
+        DayBucket bucket = bucket(day);
+        if(bucket == null) {
+            return;
+        }
+        for(int i = 0; i < bucket.size(); i++) {
+            table.visit(bucket.asked(i), visitor);
+        }
+    }
+
+    @Override
+    public void forEachStored(int day, ReviewVisitor visitor) {
+        DayBucket bucket = bucket(day);
+        for(int i = 0; bucket != null && i < bucket.size(); i++) {
+            table.visit(bucket.stored(i), visitor);
+        }
+    }
+
+    @Override
+    public void forEachDay(IntConsumer action) {
+        for(int offset = 0; offset < days.length; offset++) {
+            if(days[offset] != null) {
+                action.accept(origin + offset);
+            }
+        }
+    }
+
+    @Override
+    public DayStore fork(QuestionTable table) {
+        ArrayDayStore fork = new ArrayDayStore(table, order);
+        fork.origin = origin;
+        fork.days = days;
+        fork.shared = true;
+        shared = true;
+        //Every existing bucket now belongs to neither store.
+        owner = new Object();
+        return fork;
+    }
+}
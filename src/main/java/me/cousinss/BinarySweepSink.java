@@ -0,0 +1,96 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//Writes cells in a compact columnar binary format, a block of rows at a time so memory stays bounded:
+//  header: int MAGIC, int VERSION
+//  block:  int rowCount (> 0), then each column in turn as rowCount big-endian values:
+//          long cell, int schedule, int maxPerDate, int cutoff, float feedProp, float feedChance, float skipChance,
+//          then float mean, variance, p10, p50, p90 for days late, and the same five for the abandoned portion
+//  end:    int 0
+public class BinarySweepSink implements SweepSink {
+
+    public static final int MAGIC = 0x53525357; //"SRSW"
+    public static final int VERSION = 1;
+    private static final int BLOCK_ROWS = 4096;
+    private static final int STAT_COLUMNS = 10;
+
+    private final DataOutputStream out;
+    private final long[] cells = new long[BLOCK_ROWS];
+    private final int[][] intColumns = new int[3][BLOCK_ROWS];
+    private final float[][] floatColumns = new float[3 + STAT_COLUMNS][BLOCK_ROWS];
+    private int rows;
+
+    public BinarySweepSink(Path path) throws IOException {
+        this(Files.newOutputStream(path));
+    }
+
+    public BinarySweepSink(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    private void put(int column, ParameterSweep.Summary summary) {
+        floatColumns[column][rows] = summary.mean();
+        floatColumns[column + 1][rows] = summary.variance();
+        floatColumns[column + 2][rows] = summary.p10();
+        floatColumns[column + 3][rows] = summary.p50();
+        floatColumns[column + 4][rows] = summary.p90();
+    }
+
+    @Override
+    public void accept(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) throws IOException {
+        cells[rows] = cell.index();
+        intColumns[0][rows] = cell.schedule();
+        intColumns[1][rows] = cell.maxPerDate();
+        intColumns[2][rows] = cell.cutoff();
+        floatColumns[0][rows] = cell.feedProp();
+        floatColumns[1][rows] = cell.feedChance();
+        floatColumns[2][rows] = cell.skipChance();
+        put(3, late);
+        put(3 + STAT_COLUMNS / 2, abandoned);
+        if(++rows == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if(rows == 0) {
+            return;
+        }
+        out.writeInt(rows);
+        for(int i = 0; i < rows; i++) {
+            out.writeLong(cells[i]);
+        }
+        for(int[] column : intColumns) {
+            for(int i = 0; i < rows; i++) {
+                out.writeInt(column[i]);
+            }
+        }
+        for(float[] column : floatColumns) {
+            for(int i = 0; i < rows; i++) {
+                out.writeFloat(column[i]);
+            }
+        }
+        rows = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBlock();
+        out.writeInt(0);
+        out.close();
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+//The storage engine behind a ReviewCalendar. Both engines behave identically through the ReviewCalendar API, and retain
+//about the same heap per scheduled review, from some 17 to 34 bytes depending on how busy the days are (see QuestionTable).
+public enum CalendarBackend {
+    //A hash map keyed by Date, with an array of packed repetitions per day.
+    HASHED {
+        @Override
+        DayStore newStore(QuestionTable table, DayOrder order) {
+            return new HashedDayStore(table, order);
+        }
+    },
+    //Growable arrays indexed by day offset, with an array of packed repetitions per day.
+    ARRAY {
+        @Override
+        DayStore newStore(QuestionTable table, DayOrder order) {
+            return new ArrayDayStore(table, order);
+        }
+    };
+
+    abstract DayStore newStore(QuestionTable table, DayOrder order);
+}
@@ -0,0 +1,104 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+//Counters and distributions of what a ReviewCalendar's scheduler does, collected while the calendar runs (see
+//ReviewCalendar.setMetrics). Recording is thread-safe, so one instance may be shared by many calendars -- such as every
+//calendar in a CalendarRegistry -- for an aggregated view, or each calendar may have its own and be merged when read.
+public final class CalendarMetrics {
+
+    public enum Counter {
+        //Repetitions placed into a day.
+        ADDED,
+        //Repetitions moved off a day by skip.
+        SKIPPED,
+        //Repetitions pushed on to the next day, for overflowing a day or for being a duplicate on it.
+        DELAYED,
+        //Repetitions pushed off a day by another repetition of the same question (always delayed, never abandoned).
+        DUPLICATES,
+        //Repetitions abandoned by repair for overflowing a day, as abandonRepair decided.
+        ABANDONED_BY_CALLBACK,
+        //Repetitions abandoned by repair for overflowing a day, as the abandon policy decided (see setAbandonPolicy).
+        ABANDONED_BY_POLICY,
+        //Repetitions the abandon policy would have abandoned but kept (and delayed) because their lesson had used up its
+        //quota of abandons.
+        ABANDON_REFUSED_BY_QUOTA,
+        //Questions whose next repetition falls at or past the cutoff, so that it and any after it are never scheduled. Each
+        //counts once, however many repetitions its schedule had left; a lazy calendar counts it once it has reached that far.
+        CUT_OFF
+    }
+
+    public enum Distribution {
+        //The time taken by each addWithSpacing call, addAllWithSpacing call (a whole lesson), skip call and recordReview call,
+        //repair included.
+        ADD_NANOS,
+        ADD_ALL_NANOS,
+        SKIP_NANOS,
+        REVIEW_NANOS,
+        //The time taken by each repair that found a day over-full, and the number of days it repaired (how far the
+        //cascade of delays ran).
+        REPAIR_NANOS,
+        CASCADE_DAYS
+    }
+
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final Histogram[] distributions = new Histogram[Distribution.values().length];
+
+    public CalendarMetrics() {
+        for(int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        for(int i = 0; i < distributions.length; i++) {
+            distributions[i] = new Histogram();
+        }
+    }
+
+    void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    void record(Distribution distribution, long value) {
+        distributions[distribution.ordinal()].record(value);
+    }
+
+    public long get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    //The live distribution; it goes on changing as values are recorded.
+    public Histogram get(Distribution distribution) {
+        return distributions[distribution.ordinal()];
+    }
+
+    //Adds everything recorded by the other metrics into these.
+    public void add(CalendarMetrics other) {
+        for(int i = 0; i < counters.length; i++) {
+            counters[i].add(other.counters[i].sum());
+        }
+        for(int i = 0; i < distributions.length; i++) {
+            distributions[i].add(other.distributions[i]);
+        }
+    }
+
+    //The name a metric is exported under, such as "calendar.abandoned_by_policy" or "calendar.repair_nanos".
+    static String name(Enum<?> metric) {
+        return "calendar." + metric.name().toLowerCase(Locale.ROOT);
+    }
+
+    //Hands every counter and distribution to the sink.
+    public void export(MetricsSink sink) {
+        for(Counter counter : Counter.values()) {
+            sink.counter(name(counter), get(counter));
+        }
+        for(Distribution distribution : Distribution.values()) {
+            sink.distribution(name(distribution), get(distribution));
+        }
+    }
+}
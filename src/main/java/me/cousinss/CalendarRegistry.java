@@ -0,0 +1,229 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+//Holds one ReviewCalendar per learner for a multi-threaded service. Learners are striped across a fixed set of shards, each
+//guarded by its own lock, so calls for learners in different shards never contend. A calendar is created by the factory the
+//first time its learner is written to.
+public class CalendarRegistry {
+
+    private static final class Shard {
+        private final Map<Long, ReviewCalendar> calendars = new HashMap<>();
+    }
+
+    //Enough stripes that, with learners spread evenly, two busy threads rarely share one.
+    private static int defaultStripes() {
+        return Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 16 - 1) << 1;
+    }
+
+    private final Shard[] shards;
+    private final LongFunction<ReviewCalendar> factory;
+
+    public CalendarRegistry(LongFunction<ReviewCalendar> factory) {
+        this(factory, defaultStripes());
+    }
+
+    //The number of stripes is rounded up to a power of two.
+    public CalendarRegistry(LongFunction<ReviewCalendar> factory, int stripes) {
+        if(stripes <= 0) throw new IllegalArgumentException();
+        this.shards = new Shard[stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1];
+        for(int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        this.factory = factory;
+    }
+
+    private Shard shard(long learnerID) {
+        return shards[stripe(learnerID)];
+    }
+
+    //The index of the learner's stripe. Learners in different stripes never share a lock.
+    int stripe(long learnerID) {
+        long h = learnerID * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (shards.length - 1);
+    }
+
+    int stripes() {
+        return shards.length;
+    }
+
+    //Runs the action on the learner's calendar (creating it if needed) while holding the learner's shard lock.
+    public <R> R withCalendar(long learnerID, Function<ReviewCalendar, R> action) {
+        Shard shard = shard(learnerID);
+        synchronized(shard) {
+            return action.apply(shard.calendars.computeIfAbsent(learnerID, factory::apply));
+        }
+    }
+
+    //Runs the action on the learner's calendar while holding the learner's shard lock, or returns otherwise if it has none.
+    private <R> R read(long learnerID, Function<ReviewCalendar, R> action, R otherwise) {
+        Shard shard = shard(learnerID);
+        synchronized(shard) {
+            ReviewCalendar calendar = shard.calendars.get(learnerID);
+            return calendar == null ? otherwise : action.apply(calendar);
+        }
+    }
+
+    public void addWithSpacing(long learnerID, Question question, Date dateBasis, SpacedRepetition spacing) {
+        withCalendar(learnerID, calendar -> {
+            calendar.addWithSpacing(question, dateBasis, spacing);
+            return null;
+        });
+    }
+
+    public void addAllWithSpacing(long learnerID, Collection<? extends Question> questions, Date dateBasis, SpacedRepetition spacing) {
+        withCalendar(learnerID, calendar -> {
+            calendar.addAllWithSpacing(questions, dateBasis, spacing);
+            return null;
+        });
+    }
+
+    public void skip(long learnerID, Date date, int fromQuestion) {
+        withCalendar(learnerID, calendar -> {
+            calendar.skip(date, fromQuestion);
+            return null;
+        });
+    }
+
+    public void recordReview(long learnerID, SpacedQuestion question, Date date, int quality) {
+        withCalendar(learnerID, calendar -> {
+            calendar.recordReview(question, date, quality);
+            return null;
+        });
+    }
+
+    //Switches the learner's calendar to the compiled abandon policy (see ReviewCalendar.setAbandonPolicy).
+    public void setAbandonPolicy(long learnerID, AbandonTable policy, SplittableRandom random) {
+        withCalendar(learnerID, calendar -> {
+            calendar.setAbandonPolicy(policy, random);
+            return null;
+        });
+    }
+
+    //A copy of the learner's questions for the date, in the order they are to be asked.
+    public Collection<SpacedQuestion> getForDate(long learnerID, Date date) {
+        return read(learnerID, calendar -> calendar.getForDate(date), List.of());
+    }
+
+    public int count(long learnerID, Date date) {
+        return read(learnerID, calendar -> calendar.count(date), 0);
+    }
+
+    public int countBetween(long learnerID, Date from, Date to) {
+        return read(learnerID, calendar -> calendar.countBetween(from, to), 0);
+    }
+
+    //The last day the learner has a question to be asked on, or null if none.
+    public Date latestDate(long learnerID) {
+        return read(learnerID, ReviewCalendar::latestDate, null);
+    }
+
+    public boolean contains(long learnerID) {
+        return read(learnerID, calendar -> true, false);
+    }
+
+    public boolean remove(long learnerID) {
+        Shard shard = shard(learnerID);
+        synchronized(shard) {
+            return shard.calendars.remove(learnerID) != null;
+        }
+    }
+
+    //The metrics of every learner's calendar added together, counting metrics shared by several calendars once. Like size, this
+    //is not a snapshot under concurrent writes.
+    public CalendarMetrics metrics() {
+        Set<CalendarMetrics> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        CalendarMetrics total = new CalendarMetrics();
+        for(Shard shard : shards) {
+            synchronized(shard) {
+                for(ReviewCalendar calendar : shard.calendars.values()) {
+                    CalendarMetrics metrics = calendar.getMetrics();
+                    if(metrics != null && seen.add(metrics)) {
+                        total.add(metrics);
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    //The number of questions on each day of every learner's calendar that holds any.
+    public Histogram queueDepths() {
+        Histogram depths = new Histogram();
+        for(Shard shard : shards) {
+            synchronized(shard) {
+                for(ReviewCalendar calendar : shard.calendars.values()) {
+                    calendar.recordQueueDepths(depths);
+                }
+            }
+        }
+        return depths;
+    }
+
+    //The number of questions due on each day from from (inclusive) to to (exclusive) over every learner, indexed from from: the
+    //daily load to plan capacity for.
+    public long[] loadBetween(Date from, Date to) {
+        long[] load = new long[Math.max(0, to.datePoint() - from.datePoint())];
+        for(Shard shard : shards) {
+            synchronized(shard) {
+                for(ReviewCalendar calendar : shard.calendars.values()) {
+                    int[] learnerLoad = calendar.loadBetween(from, to);
+                    for(int i = 0; i < load.length; i++) {
+                        load[i] += learnerLoad[i];
+                    }
+                }
+            }
+        }
+        return load;
+    }
+
+    //The distribution of a single learner's load per day, over every learner and every day from from (inclusive) to to
+    //(exclusive), empty days included.
+    public Histogram loadHistogram(Date from, Date to) {
+        Histogram loads = new Histogram();
+        for(Shard shard : shards) {
+            synchronized(shard) {
+                for(ReviewCalendar calendar : shard.calendars.values()) {
+                    calendar.recordLoadBetween(from, to, loads);
+                }
+            }
+        }
+        return loads;
+    }
+
+    //Runs the action on every learner's calendar in turn, each while holding its shard lock.
+    void forEach(Consumer<ReviewCalendar> action) {
+        for(Shard shard : shards) {
+            synchronized(shard) {
+                shard.calendars.values().forEach(action);
+            }
+        }
+    }
+
+    //The number of learners with a calendar. Shards are counted one at a time, so this is not a snapshot under concurrent writes.
+    public int size() {
+        int size = 0;
+        for(Shard shard : shards) {
+            synchronized(shard) {
+                size += shard.calendars.size();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+//Writes a whole ReviewCalendar to a channel and reads it back into a fresh one, for shipping a learner's calendar between
+//nodes or seeding a simulation from real state. The format is compact: day numbers and question ids are delta-encoded as
+//varints (svarints are zigzag-encoded, so small negative values stay small), and it streams through a fixed buffer.
+//Schedules are written as their offsets, so a restored calendar shares one schedule per schedule of the original: a new
+//StaticSpacedRepetition, unless the reader is given the schedules to resolve them to (see read), and a new
+//AdaptiveSpacedRepetition with the same state for each adaptive one. A static schedule is written up to the highest spaceID
+//the calendar holds of it (placed or pending), then on to the cutoff but no more than LOOKAHEAD repetitions further, so a
+//procedural schedule running on to a distant cutoff is not expanded in full; one cut short that way comes back truncated
+//unless the reader is given it.
+//  header     int MAGIC, int VERSION, varint maxPerDate, svarint cutoff, varint numAdded, varint numAbandoned, byte lazy,
+//             byte DayOrder ordinal, then svarint materialized if lazy
+//  schedules  varint count, then per schedule: byte STATIC or ADAPTIVE, varint offset count, svarint offset deltas, then
+//             double ease, varint streak, varint interval if ADAPTIVE
+//  questions  varint count, then per question: svarint id delta, svarint lessonID, svarint basis, varint text length, text
+//             (UTF-8)
+//  days       varint count, varint total repetitions, then per day (ascending, emptied days included, as repair tells a
+//             day the calendar held from one it makes): svarint day delta, varint repetition count, then per repetition
+//             (in the order the day stores them, so adding them back rebuilds it exactly): varint spaceID, svarint id delta
+//             (from the day's previous repetition), varint schedule
+//  pending    varint count, then per question: svarint id, varint spaceID, varint schedule (always 0 unless lazy)
+public final class CalendarSnapshot {
+
+    public static final int MAGIC = 0x53524350; //"SRCP"
+    public static final int VERSION = 2;
+    private static final byte STATIC = 0;
+    private static final byte ADAPTIVE = 1;
+    private static final int BUFFER_BYTES = 1 << 16;
+    //How many repetitions past the highest spaceID held of a static schedule are written out (while before the cutoff):
+    //enough to tell apart schedules that share their first offsets, and for a lazy calendar to go on placing a truncated one.
+    private static final int LOOKAHEAD = 64;
+
+    private CalendarSnapshot() {}
+
+    private static final class Out {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+
+        private Out(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private void ensure(int bytes) {
+            if(buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while(buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+
+        private void varint(int value) {
+            ensure(5);
+            while((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void svarint(int value) {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        private void putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putDouble(double value) {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        private void put(byte value) {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        private void put(byte[] bytes) {
+            for(int i = 0; i < bytes.length; ) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), bytes.length - i);
+                buffer.put(bytes, i, n);
+                i += n;
+            }
+        }
+    }
+
+    private static final class In {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).limit(0);
+
+        private In(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        //Reads until at least the given number of bytes are buffered, or the channel ends.
+        private void fill(int bytes) throws IOException {
+            if(buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while(buffer.position() < bytes && channel.read(buffer) >= 0);
+            buffer.flip();
+        }
+
+        private byte get() throws IOException {
+            fill(1);
+            if(!buffer.hasRemaining()) throw new EOFException();
+            return buffer.get();
+        }
+
+        private int varint() throws IOException {
+            fill(5);
+            int value = 0;
+            for(int shift = 0; shift < 35; shift += 7) {
+                byte b = get();
+                value |= (b & 0x7F) << shift;
+                if(b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        private int svarint() throws IOException {
+            int value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private int getInt() throws IOException {
+            fill(4);
+            if(buffer.remaining() < 4) throw new EOFException();
+            return buffer.getInt();
+        }
+
+        private double getDouble() throws IOException {
+            fill(8);
+            if(buffer.remaining() < 8) throw new EOFException();
+            return buffer.getDouble();
+        }
+
+        private byte[] bytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            for(int i = 0; i < length; ) {
+                fill(1);
+                if(!buffer.hasRemaining()) throw new EOFException();
+                int n = Math.min(buffer.remaining(), length - i);
+                buffer.get(bytes, i, n);
+                i += n;
+            }
+            return bytes;
+        }
+    }
+
+    //Numbers the schedules in the order they are first seen, noting the highest spaceID each is seen with.
+    private static final class Schedules implements ReviewVisitor {
+        private final Map<SpacedRepetition, Integer> index = new IdentityHashMap<>();
+        private final List<SpacedRepetition> schedules = new ArrayList<>();
+        private int[] maxSpaceIDs = new int[8];
+
+        private int indexOf(SpacedRepetition repetition) {
+            Integer i = index.get(repetition);
+            if(i == null) {
+                i = schedules.size();
+                index.put(repetition, i);
+                schedules.add(repetition);
+                if(i == maxSpaceIDs.length) {
+                    maxSpaceIDs = Arrays.copyOf(maxSpaceIDs, i * 2);
+                }
+            }
+            return i;
+        }
+
+        @Override
+        public void visit(Question question, int spaceID, SpacedRepetition repetition) {
+            int i = indexOf(repetition);
+            maxSpaceIDs[i] = Math.max(maxSpaceIDs[i], spaceID);
+        }
+    }
+
+    public static void write(ReviewCalendar calendar, WritableByteChannel channel) throws IOException {
+        try {
+            writeTo(calendar, new Out(channel));
+        } catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeTo(ReviewCalendar calendar, Out out) {
+        IntStream.Builder dayBuilder = IntStream.builder();
+        calendar.forEachDay(dayBuilder::add);
+        int[] days = dayBuilder.build().sorted().toArray();
+        Schedules schedules = new Schedules();
+        for(int day : days) {
+            calendar.forEachPlaced(day, schedules);
+        }
+        calendar.forEachPending(schedules);
+        //Repetitions at or past the cutoff are never placed, so schedules are written out no further than that.
+        int[] earliest = {Integer.MAX_VALUE};
+        calendar.forEachBasis((question, basis) -> earliest[0] = Math.min(earliest[0], basis.datePoint()));
+        int horizon = calendar.getCutoff().datePoint() - earliest[0];
+
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.varint(calendar.getMaxPerDate());
+        out.svarint(calendar.getCutoff().datePoint());
+        out.varint(calendar.getNumAdded());
+        out.varint(calendar.getNumAbandoned());
+        out.put((byte) (calendar.isLazy() ? 1 : 0));
+        out.put((byte) calendar.getDayOrder().ordinal());
+        if(calendar.isLazy()) {
+            out.svarint(calendar.getMaterialized());
+        }
+
+        out.varint(schedules.schedules.size());
+        for(int s = 0; s < schedules.schedules.size(); s++) {
+            SpacedRepetition schedule = schedules.schedules.get(s);
+            AdaptiveSpacedRepetition adaptive = schedule instanceof AdaptiveSpacedRepetition a ? a : null;
+            int count = 0;
+            if(adaptive != null) {
+                count = adaptive.scheduled();
+            } else {
+                int held = schedules.maxSpaceIDs[s];
+                int offset;
+                while((offset = schedule.offsetDays(count)) != SpacedRepetition.NONE
+                        && (count <= held || offset < horizon && count <= held + LOOKAHEAD)) {
+                    count++;
+                }
+            }
+            out.put(adaptive == null ? STATIC : ADAPTIVE);
+            out.varint(count);
+            int previous = 0;
+            for(int i = 0; i < count; i++) {
+                int offset = schedule.offsetDays(i);
+                out.svarint(offset - previous);
+                previous = offset;
+            }
+            if(adaptive != null) {
+                out.putDouble(adaptive.getEase());
+                out.varint(adaptive.getStreak());
+                out.varint(adaptive.getInterval());
+            }
+        }
+
+        int[] numQuestions = {0};
+        calendar.forEachBasis((question, basis) -> numQuestions[0]++);
+        out.varint(numQuestions[0]);
+        int[] previousID = {0};
+        calendar.forEachBasis((question, basis) -> {
+            out.svarint(question.getId() - previousID[0]);
+            previousID[0] = question.getId();
+            out.svarint(question.getLessonID());
+            out.svarint(basis.datePoint());
+            byte[] text = question.getQuestion().getBytes(StandardCharsets.UTF_8);
+            out.varint(text.length);
+            out.put(text);
+        });
+
+        out.varint(days.length);
+        int numRepetitions = 0;
+        for(int day : days) {
+            numRepetitions += calendar.countPlaced(day);
+        }
+        out.varint(numRepetitions);
+        int previousDay = 0;
+        int[] previousInDay = {0};
+        ReviewVisitor repetitions = (question, spaceID, repetition) -> {
+            out.varint(spaceID);
+            out.svarint(question.getId() - previousInDay[0]);
+            previousInDay[0] = question.getId();
+            out.varint(schedules.indexOf(repetition));
+        };
+        for(int day : days) {
+            out.svarint(day - previousDay);
+            previousDay = day;
+            out.varint(calendar.countPlaced(day));
+            previousInDay[0] = 0;
+            calendar.forEachStored(day, repetitions);
+        }
+
+        int[] numPending = {0};
+        calendar.forEachPending((question, spaceID, repetition) -> numPending[0]++);
+        out.varint(numPending[0]);
+        calendar.forEachPending((question, spaceID, repetition) -> {
+            out.svarint(question.getId());
+            out.varint(spaceID);
+            out.varint(schedules.indexOf(repetition));
+        });
+        out.flush();
+    }
+
+    //Reads a snapshot into the given calendar, which must be new, and made with the snapshot's maxPerDate, cutoff, laziness
+    //and DayOrder. Its static schedules come back as new StaticSpacedRepetition instances, which are equal in their offsets
+    //to the originals but not the same objects.
+    public static void read(ReadableByteChannel channel, ReviewCalendar into) throws IOException {
+        read(channel, into, List.of());
+    }
+
+    //As read, but each static schedule comes back as the first of the given schedules whose offsets start with the ones
+    //written (such as the schedules lessons are posted with), so that later adds with them share it; only those with no
+    //match are made anew. Adaptive schedules are each a question's own state, so are never resolved.
+    public static void read(ReadableByteChannel channel, ReviewCalendar into, List<? extends SpacedRepetition> known)
+            throws IOException {
+        if(into.getNumAdded() != 0) throw new IllegalArgumentException("Snapshots can only be read into a new calendar");
+        In in = new In(channel);
+        if(in.getInt() != MAGIC || in.getInt() != VERSION) throw new IOException("Not a version " + VERSION + " calendar snapshot");
+        int maxPerDate = in.varint();
+        int cutoff = in.svarint();
+        int numAdded = in.varint();
+        int numAbandoned = in.varint();
+        boolean lazy = in.get() != 0;
+        int order = in.get();
+        if(maxPerDate != into.getMaxPerDate() || cutoff != into.getCutoff().datePoint() || lazy != into.isLazy()
+                || order != into.getDayOrder().ordinal()) {
+            throw new IOException("Snapshot was taken of a calendar with a different maxPerDate, cutoff, laziness or DayOrder");
+        }
+        if(lazy) {
+            into.restoreMaterialized(in.svarint());
+        }
+
+        SpacedRepetition[] schedules = new SpacedRepetition[in.varint()];
+        for(int s = 0; s < schedules.length; s++) {
+            byte kind = in.get();
+            int[] offsets = new int[in.varint()];
+            int previous = 0;
+            for(int i = 0; i < offsets.length; i++) {
+                offsets[i] = previous += in.svarint();
+            }
+            if(kind == STATIC) {
+                schedules[s] = resolve(known, offsets);
+            } else if(kind == ADAPTIVE) {
+                schedules[s] = new AdaptiveSpacedRepetition(offsets, in.getDouble(), in.varint(), in.varint());
+            } else {
+                throw new IOException("Unknown schedule kind " + kind);
+            }
+        }
+
+        Question[] questions = new Question[in.varint()];
+        LongIntMap questionIndex = new LongIntMap();
+        int id = 0;
+        for(int q = 0; q < questions.length; q++) {
+            id += in.svarint();
+            int lessonID = in.svarint();
+            Date basis = new Date(in.svarint());
+            String text = new String(in.bytes(in.varint()), StandardCharsets.UTF_8);
+            questions[q] = new Question(text, lessonID, id);
+            questionIndex.put(id, q);
+            into.restoreBasis(questions[q], basis);
+        }
+
+        int numDays = in.varint();
+        //The total number of repetitions, which nothing needs ahead of time.
+        in.varint();
+        int day = 0;
+        for(int d = 0; d < numDays; d++) {
+            day += in.svarint();
+            int count = in.varint();
+            if(count == 0) {
+                into.restoreDay(day);
+            }
+            int questionID = 0;
+            for(int i = 0; i < count; i++) {
+                int spaceID = in.varint();
+                questionID += in.svarint();
+                into.restore(day, question(questions, questionIndex, questionID), spaceID, schedule(schedules, in.varint()));
+            }
+        }
+
+        int numPending = in.varint();
+        for(int p = 0; p < numPending; p++) {
+            Question question = question(questions, questionIndex, in.svarint());
+            int spaceID = in.varint();
+            into.restorePending(question, spaceID, schedule(schedules, in.varint()));
+        }
+        into.restoreCounts(numAdded, numAbandoned);
+    }
+
+    private static SpacedRepetition resolve(List<? extends SpacedRepetition> known, int[] offsets) {
+        for(SpacedRepetition schedule : known) {
+            if(!(schedule instanceof AdaptiveSpacedRepetition) && startsWith(schedule, offsets)) {
+                return schedule;
+            }
+        }
+        return new StaticSpacedRepetition(offsets);
+    }
+
+    private static boolean startsWith(SpacedRepetition schedule, int[] offsets) {
+        for(int i = 0; i < offsets.length; i++) {
+            if(schedule.offsetDays(i) != offsets[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Question question(Question[] questions, LongIntMap questionIndex, int id) throws IOException {
+        int index = questionIndex.get(id, -1);
+        if(index < 0) throw new IOException("Snapshot refers to unknown question " + id);
+        return questions[index];
+    }
+
+    private static SpacedRepetition schedule(SpacedRepetition[] schedules, int index) throws IOException {
+        if(index >= schedules.length) throw new IOException("Snapshot refers to unknown schedule " + index);
+        return schedules[index];
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Arrays;
+
+//A schedule with its repetitions materialized into an int array of offsets, so reading it neither boxes nor allocates. This
+//suits procedural schedules, whose repetitions would otherwise be recomputed on every read. Repetitions are compiled up to
+//(but not including) the first one at or past the horizon; any later repetition is read through from the source schedule,
+//so a compiled schedule always agrees with its source. The source must reach the horizon or end.
+public class CompiledSpacedRepetition implements SpacedRepetition {
+
+    private final SpacedRepetition source;
+    private final int horizon;
+    private final int[] offsets;
+    private final Date[] dateVectors;
+    //True if the source has no repetitions after the compiled ones.
+    private final boolean complete;
+
+    public CompiledSpacedRepetition(SpacedRepetition source, int horizon) {
+        this.source = source;
+        this.horizon = horizon;
+        int[] offsets = new int[8];
+        int n = 0;
+        int offset;
+        while((offset = source.offsetDays(n)) != NONE && offset < horizon) {
+            if(n == offsets.length) {
+                offsets = Arrays.copyOf(offsets, n * 2);
+            }
+            offsets[n++] = offset;
+        }
+        this.offsets = Arrays.copyOf(offsets, n);
+        this.dateVectors = Arrays.stream(this.offsets).mapToObj(Date::new).toArray(Date[]::new);
+        this.complete = offset == NONE;
+    }
+
+    //The number of compiled repetitions.
+    public int length() {
+        return offsets.length;
+    }
+
+    @Override
+    public Date apply(Integer n) {
+        if(n >= 0 && n < dateVectors.length) {
+            return dateVectors[n];
+        }
+        return complete ? null : source.apply(n);
+    }
+
+    @Override
+    public int offsetDays(int n) {
+        if(n >= 0 && n < offsets.length) {
+            return offsets[n];
+        }
+        return complete ? NONE : source.offsetDays(n);
+    }
+
+    @Override
+    public CompiledSpacedRepetition compile(int horizon) {
+        return complete || horizon <= this.horizon ? this : source.compile(horizon);
+    }
+}
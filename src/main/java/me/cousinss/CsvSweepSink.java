@@ -0,0 +1,52 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//Writes one CSV row per cell, flushing as the buffer fills, so a sweep of any size runs in constant memory.
+public class CsvSweepSink implements SweepSink {
+
+    private static final String HEADER = "cell,schedule,maxPerDate,cutoff,feedProp,feedChance,skipChance,"
+            + "late_mean,late_variance,late_p10,late_p50,late_p90,"
+            + "abandoned_mean,abandoned_variance,abandoned_p10,abandoned_p50,abandoned_p90";
+
+    private final Writer out;
+
+    public CsvSweepSink(Path path) throws IOException {
+        this(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    public CsvSweepSink(Writer out) throws IOException {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+        this.out.write(HEADER);
+        this.out.write('\n');
+    }
+
+    private void write(ParameterSweep.Summary summary) throws IOException {
+        out.write(',' + Float.toString(summary.mean()) + ',' + summary.variance() + ',' + summary.p10() + ',' + summary.p50() + ',' + summary.p90());
+    }
+
+    @Override
+    public void accept(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) throws IOException {
+        out.write(cell.index() + "," + cell.schedule() + ',' + cell.maxPerDate() + ',' + cell.cutoff() + ',' + cell.feedProp() + ','
+                + cell.feedChance() + ',' + cell.skipChance());
+        write(late);
+        write(abandoned);
+        out.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,15 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+//Receives the repetitions of a range of days one at a time, with the day each is to be asked on (see
+//ReviewCalendar.forEachBetween).
+@FunctionalInterface
+public interface DatedReviewVisitor {
+
+    void visit(Date date, Question question, int spaceID, SpacedRepetition repetition);
+}
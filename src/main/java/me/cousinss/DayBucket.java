@@ -0,0 +1,418 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Arrays;
+
+//One day of a DayStore: its packed repetitions in an array, kept in the calendar's DayOrder, so the day can be walked without
+//an iterator. The day also knows which spaceID each of its questions is held at, so duplicates are caught on insert: a small
+//day is scanned for the question's number, which sits in the low bits of each repetition, and a day past INDEXED repetitions
+//keeps an Index instead, from question number to spaceID (SORTED) or to its position in the heap (HEAP), so that a held
+//repetition is found in O(1) either way.
+//A bucket belongs to the store that made it (its owner); a forked store shares it until it has to write, then writes a copy.
+abstract class DayBucket {
+
+    private static final int INDEXED = 32;
+
+    final Object owner;
+    long[] repetitions;
+    int size;
+    //Null until the day holds more than INDEXED repetitions.
+    Index index;
+
+    DayBucket(Object owner) {
+        this.owner = owner;
+        this.repetitions = new long[4];
+    }
+
+    DayBucket(Object owner, DayBucket from) {
+        this.owner = owner;
+        this.repetitions = Arrays.copyOf(from.repetitions, Math.max(4, from.size));
+        this.size = from.size;
+        this.index = from.index == null ? null : new Index(from.index);
+    }
+
+    //A copy of the bucket for the owner to write to.
+    abstract DayBucket copy(Object owner);
+
+    int size() {
+        return size;
+    }
+
+    //The repetition at the position in the array, which is the order snapshots are written in, so that reading one back in
+    //(by adding each repetition in turn) rebuilds the same array.
+    long stored(int i) {
+        return repetitions[i];
+    }
+
+    //The repetition asked at the position (from 0, the first asked).
+    abstract long asked(int i);
+
+    //The lowest-priority repetition, or QuestionTable.NONE if the day is empty.
+    abstract long last();
+
+    abstract long pollLast();
+
+    //The position of the repetition in the array, or -1 if the day does not hold it.
+    abstract int find(QuestionTable table, int questionId, int spaceID);
+
+    //Adds a repetition of a question the day does not hold.
+    abstract void add(QuestionTable table, long repetition);
+
+    abstract long removeAt(int i);
+
+    //The spaceID of the question's repetition on the day, or -1 if the day does not hold it.
+    int spaceIDOf(int question) {
+        if(index != null) {
+            return indexedSpaceID(question);
+        }
+        for(int i = 0; i < size; i++) {
+            if(QuestionTable.question(repetitions[i]) == question) {
+                return QuestionTable.spaceID(repetitions[i]);
+            }
+        }
+        return -1;
+    }
+
+    //Makes room for one more repetition.
+    void grow() {
+        if(size == repetitions.length) {
+            repetitions = Arrays.copyOf(repetitions, size * 2);
+        }
+    }
+
+    //The spaceID of the question's repetition on the day, or -1 if the day does not hold it, looked up in the index.
+    abstract int indexedSpaceID(int question);
+
+    //What the index maps the question of the repetition at the position to.
+    abstract int indexValue(int i);
+
+    //Builds the index once the day has grown past INDEXED repetitions.
+    void indexIfFull() {
+        if(index == null && size > INDEXED) {
+            index = new Index(size);
+            for(int j = 0; j < size; j++) {
+                index.put(QuestionTable.question(repetitions[j]), indexValue(j));
+            }
+        }
+    }
+
+    void indexRemoved(long repetition) {
+        if(index != null) {
+            index.remove(QuestionTable.question(repetition));
+        }
+    }
+
+    //An open-addressed (linear probing) map from question number to an int, packed one entry per long as
+    //(question + 1) << 32 | value, so that 0 marks a free slot. Kept at most three-quarters full, it takes 8 to 16 bytes per
+    //repetition, where a LongIntMap (a long key and an int value per slot, kept at most half full) took 24 to 48, most of a
+    //busy day's heap.
+    static final class Index {
+
+        private long[] slots;
+        //64 less the number of bits a slot number takes, for taking a hash's high bits.
+        private int shift;
+        private int size;
+
+        Index(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(8, expected + expected / 3) - 1) << 1;
+            slots = new long[capacity];
+            shift = Long.numberOfLeadingZeros(capacity) + 1;
+        }
+
+        Index(Index from) {
+            slots = from.slots.clone();
+            shift = from.shift;
+            size = from.size;
+        }
+
+        private int home(int question) {
+            return (int) ((question * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        private int slot(int question) {
+            int mask = slots.length - 1;
+            long key = (long) (question + 1) << 32;
+            int i = home(question);
+            while(slots[i] != 0 && (slots[i] & 0xFFFFFFFF00000000L) != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        int get(int question, int otherwise) {
+            long entry = slots[slot(question)];
+            return entry == 0 ? otherwise : (int) entry;
+        }
+
+        void put(int question, int value) {
+            int i = slot(question);
+            if(slots[i] == 0) {
+                if(4 * (size + 1) > 3 * slots.length) {
+                    rehash();
+                    i = slot(question);
+                }
+                size++;
+            }
+            slots[i] = (long) (question + 1) << 32 | value & 0xFFFFFFFFL;
+        }
+
+        //Removes the question, shifting later entries of its probe run back so no tombstones are needed.
+        void remove(int question) {
+            int mask = slots.length - 1;
+            int i = slot(question);
+            if(slots[i] == 0) {
+                return;
+            }
+            for(int j = (i + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+                int home = home((int) (slots[j] >>> 32) - 1);
+                //Move the entry at j into the hole at i, unless its home slot lies cyclically in (i, j].
+                if(i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                    slots[i] = slots[j];
+                    i = j;
+                }
+            }
+            slots[i] = 0;
+            size--;
+        }
+
+        private void rehash() {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            shift--;
+            for(long entry : old) {
+                if(entry != 0) {
+                    slots[slot((int) (entry >>> 32) - 1)] = entry;
+                }
+            }
+        }
+    }
+
+    //DayOrder.HEAP: the array is a binary heap with the highest spaceID at its root, moved about exactly as PriorityQueue
+    //moves its elements, and asked from the end of the array to the root. Equal spaceIDs compare as equal, just as they did
+    //in the PriorityQueue, so they sit wherever the heap's sifting leaves them. Once indexed, every move the sifting makes is
+    //written to the index as well, which costs O(1) a move.
+    static final class Heap extends DayBucket {
+
+        Heap(Object owner) {
+            super(owner);
+        }
+
+        private Heap(Object owner, Heap from) {
+            super(owner, from);
+        }
+
+        @Override
+        DayBucket copy(Object owner) {
+            return new Heap(owner, this);
+        }
+
+        @Override
+        long asked(int i) {
+            return repetitions[size - 1 - i];
+        }
+
+        @Override
+        long last() {
+            return size == 0 ? QuestionTable.NONE : repetitions[0];
+        }
+
+        @Override
+        long pollLast() {
+            long root = repetitions[0];
+            indexRemoved(root);
+            int n = --size;
+            if(n > 0) {
+                siftDown(0, repetitions[n], n);
+            }
+            return root;
+        }
+
+        @Override
+        int indexedSpaceID(int question) {
+            int i = index.get(question, -1);
+            return i < 0 ? -1 : QuestionTable.spaceID(repetitions[i]);
+        }
+
+        @Override
+        int indexValue(int i) {
+            return i;
+        }
+
+        @Override
+        int find(QuestionTable table, int questionId, int spaceID) {
+            if(index != null) {
+                int question = table.indexOf(questionId);
+                int i = question < 0 ? -1 : index.get(question, -1);
+                return i >= 0 && QuestionTable.spaceID(repetitions[i]) == spaceID ? i : -1;
+            }
+            for(int i = 0; i < size; i++) {
+                if(QuestionTable.spaceID(repetitions[i]) == spaceID && table.questionId(repetitions[i]) == questionId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        void add(QuestionTable table, long repetition) {
+            grow();
+            siftUp(size++, repetition);
+            indexIfFull();
+        }
+
+        @Override
+        long removeAt(int i) {
+            long removed = repetitions[i];
+            indexRemoved(removed);
+            int s = --size;
+            if(s != i) {
+                long moved = repetitions[s];
+                siftDown(i, moved, s);
+                if(repetitions[i] == moved) {
+                    siftUp(i, moved);
+                }
+            }
+            return removed;
+        }
+
+        //Puts the repetition at the position, and records its new position in the index.
+        private void set(int k, long repetition) {
+            repetitions[k] = repetition;
+            if(index != null) {
+                index.put(QuestionTable.question(repetition), k);
+            }
+        }
+
+        private void siftUp(int k, long x) {
+            int spaceID = QuestionTable.spaceID(x);
+            while(k > 0) {
+                int parent = (k - 1) >>> 1;
+                long e = repetitions[parent];
+                if(spaceID <= QuestionTable.spaceID(e)) {
+                    break;
+                }
+                set(k, e);
+                k = parent;
+            }
+            set(k, x);
+        }
+
+        private void siftDown(int k, long x, int n) {
+            int spaceID = QuestionTable.spaceID(x);
+            int half = n >>> 1;
+            while(k < half) {
+                int child = (k << 1) + 1;
+                long c = repetitions[child];
+                int right = child + 1;
+                if(right < n && QuestionTable.spaceID(repetitions[right]) > QuestionTable.spaceID(c)) {
+                    c = repetitions[child = right];
+                }
+                if(QuestionTable.spaceID(c) <= spaceID) {
+                    break;
+                }
+                set(k, c);
+                k = child;
+            }
+            set(k, x);
+        }
+    }
+
+    //DayOrder.SORTED: the array is sorted by spaceID and then by question id, so a specific repetition can be binary searched,
+    //and is asked from the start.
+    static final class Sorted extends DayBucket {
+
+        Sorted(Object owner) {
+            super(owner);
+        }
+
+        private Sorted(Object owner, Sorted from) {
+            super(owner, from);
+        }
+
+        @Override
+        DayBucket copy(Object owner) {
+            return new Sorted(owner, this);
+        }
+
+        @Override
+        long asked(int i) {
+            return repetitions[i];
+        }
+
+        @Override
+        long last() {
+            return size == 0 ? QuestionTable.NONE : repetitions[size - 1];
+        }
+
+        @Override
+        long pollLast() {
+            return removeAt(size - 1);
+        }
+
+        //The index of the repetition, or (-(insertion point) - 1) if the day does not hold it.
+        private int search(QuestionTable table, int spaceID, int questionId) {
+            int lo = 0;
+            int hi = size - 1;
+            while(lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = table.compare(repetitions[mid], spaceID, questionId);
+                if(cmp < 0) {
+                    lo = mid + 1;
+                } else if(cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        @Override
+        int indexedSpaceID(int question) {
+            return index.get(question, -1);
+        }
+
+        @Override
+        int indexValue(int i) {
+            return QuestionTable.spaceID(repetitions[i]);
+        }
+
+        @Override
+        int find(QuestionTable table, int questionId, int spaceID) {
+            return Math.max(-1, search(table, spaceID, questionId));
+        }
+
+        @Override
+        void add(QuestionTable table, long repetition) {
+            int i = search(table, QuestionTable.spaceID(repetition), table.questionId(repetition));
+            if(i >= 0) {
+                repetitions[i] = repetition;
+                return;
+            }
+            i = -(i + 1);
+            grow();
+            System.arraycopy(repetitions, i, repetitions, i + 1, size - i);
+            repetitions[i] = repetition;
+            size++;
+            if(index != null) {
+                index.put(QuestionTable.question(repetition), QuestionTable.spaceID(repetition));
+            } else {
+                indexIfFull();
+            }
+        }
+
+        @Override
+        long removeAt(int i) {
+            long removed = repetitions[i];
+            System.arraycopy(repetitions, i + 1, repetitions, i, size - i - 1);
+            size--;
+            indexRemoved(removed);
+            return removed;
+        }
+    }
+}
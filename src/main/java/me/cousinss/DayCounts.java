@@ -0,0 +1,130 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+//The number of questions on each day, as a Fenwick (binary indexed) tree, so that the count over any range of days and the
+//first or last day holding a question take O(log days) rather than a probe per day. Days are kept relative to an origin, and
+//the tree grows in either direction (rebuilt in O(days)) to cover any day it is given.
+final class DayCounts {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int origin;
+    //tree[i] (1-based) holds the sum of the (i & -i) days ending at day origin + i - 1.
+    private int[] tree = new int[1];
+    private int total;
+    //Set while the tree is shared with a fork, which it is copied away from before it is next written to.
+    private boolean shared;
+
+    //The same counts, sharing the tree with this until either is written to, in O(1).
+    DayCounts fork() {
+        DayCounts fork = new DayCounts();
+        fork.origin = origin;
+        fork.tree = tree;
+        fork.total = total;
+        fork.shared = shared = true;
+        return fork;
+    }
+
+    private int capacity() {
+        return tree.length - 1;
+    }
+
+    void add(int day, int delta) {
+        if(delta == 0) return;
+        if(shared) {
+            tree = tree.clone();
+            shared = false;
+        }
+        cover(day);
+        for(int i = day - origin + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+        total += delta;
+    }
+
+    int total() {
+        return total;
+    }
+
+    //The number of questions on days before the day.
+    int before(int day) {
+        int end = Math.min(day - origin, capacity());
+        int sum = 0;
+        for(int i = end; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    //The number of questions on the days from from (inclusive) to to (exclusive).
+    int between(int from, int to) {
+        return from >= to ? 0 : before(to) - before(from);
+    }
+
+    //The first day on which the running count reaches rank (1 <= rank <= total).
+    private int dayOfRank(int rank) {
+        int position = 0;
+        for(int step = Integer.highestOneBit(capacity()); step > 0; step >>= 1) {
+            if(position + step <= capacity() && tree[position + step] < rank) {
+                position += step;
+                rank -= tree[position];
+            }
+        }
+        return origin + position;
+    }
+
+    //The first day on or after the day holding a question, or Integer.MAX_VALUE if there is none.
+    int next(int day) {
+        int rank = before(day) + 1;
+        return rank > total ? Integer.MAX_VALUE : dayOfRank(rank);
+    }
+
+    //The first and last days holding a question. Only meaningful when total() > 0.
+    int first() {
+        return dayOfRank(1);
+    }
+
+    int last() {
+        return dayOfRank(total);
+    }
+
+    //Grows the tree, keeping its counts, until it covers the day.
+    private void cover(int day) {
+        if(capacity() == 0) {
+            origin = day;
+            tree = new int[INITIAL_CAPACITY + 1];
+            return;
+        }
+        if(day >= origin && day < origin + capacity()) return;
+        int from = Math.min(origin, day);
+        int to = Math.max(origin + capacity(), day + 1);
+        int capacity = capacity();
+        while(capacity < to - from) {
+            capacity *= 2;
+        }
+        //Growing downwards leaves the slack below the new day, as earlier days are rarely far behind.
+        int newOrigin = day < origin ? origin + capacity() - capacity : origin;
+        //Undo the tree back into per-day counts, shift them into place and rebuild, both in linear time.
+        for(int i = capacity(); i > 0; i--) {
+            int parent = i + (i & -i);
+            if(parent < tree.length) {
+                tree[parent] -= tree[i];
+            }
+        }
+        int[] grown = new int[capacity + 1];
+        System.arraycopy(tree, 1, grown, origin - newOrigin + 1, capacity());
+        for(int i = 1; i < grown.length; i++) {
+            int parent = i + (i & -i);
+            if(parent < grown.length) {
+                grown[parent] += grown[i];
+            }
+        }
+        origin = newOrigin;
+        tree = grown;
+    }
+}
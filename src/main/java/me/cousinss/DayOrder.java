@@ -0,0 +1,31 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+//The order a ReviewCalendar keeps each day's questions in. A day is asked from its first question, and delayed (by repair
+//or skip) from its last, the lowest-priority one.
+public enum DayOrder {
+    //As the calendar has always kept its days: a PriorityQueue on spaceID alone, asked in reverse heap order. Questions of
+    //the same spaceID come out in whatever order the heap left them in, which depends on the order they arrived in.
+    HEAP {
+        @Override
+        DayBucket newBucket(Object owner) {
+            return new DayBucket.Heap(owner);
+        }
+    },
+    //By spaceID, then by question id, whatever order the questions arrived in. Lazy calendars keep their days in this order,
+    //as they place repetitions in a different order to an eager calendar. An eager calendar may opt in to it: questions of
+    //the same spaceID then come out in a fixed order, and the calendar can be compared day for day with a lazy one.
+    SORTED {
+        @Override
+        DayBucket newBucket(Object owner) {
+            return new DayBucket.Sorted(owner);
+        }
+    };
+
+    abstract DayBucket newBucket(Object owner);
+}
@@ -0,0 +1,68 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.function.IntConsumer;
+
+//Storage for the day buckets of a ReviewCalendar. Days are addressed by their datePoint, and hold repetitions packed by the
+//calendar's QuestionTable (which the store is built around). Each day is kept in the calendar's DayOrder, ending with the
+//lowest-priority repetition (the last one to be asked, and the first one to be delayed). A day that has been emptied keeps
+//its bucket, just as the calendar's days always kept their queues, since repair walks the days it knows of in date order.
+interface DayStore {
+
+    //True if the day has ever been given a bucket, even if it has since been emptied.
+    boolean hasDay(int day);
+
+    int size(int day);
+
+    //The same as size(date.datePoint()), for stores that can look the caller's Date up directly.
+    default int size(Date date) {
+        return size(date.datePoint());
+    }
+
+    //Adds a repetition of a question the day does not hold.
+    void add(int day, long repetition);
+
+    //Gives the day an empty bucket if it has none, for reading back a day that had been emptied.
+    void addDay(int day);
+
+    //The lowest-priority repetition on the day, or QuestionTable.NONE if the day is empty.
+    long peekLast(int day);
+
+    long pollLast(int day);
+
+    //The repetition of the question with the given spaceID, or QuestionTable.NONE if the day holds no such repetition.
+    long get(int day, int questionId, int spaceID);
+
+    //The spaceID of the repetition of the question (by its number in the QuestionTable) on the day, or -1 if there is none. A
+    //day holds at most one repetition of any question.
+    int spaceIDOf(int day, int question);
+
+    //Removes and returns the repetition of the question with the given spaceID, or QuestionTable.NONE if the day holds no such
+    //repetition.
+    long remove(int day, int questionId, int spaceID);
+
+    //Visits the repetitions on the day in the order they are to be asked, without copying the day or allocating.
+    void forEach(int day, ReviewVisitor visitor);
+
+    //The same as forEach(date.datePoint(), visitor), for stores that can look the caller's Date up directly.
+    default void forEach(Date date, ReviewVisitor visitor) {
+        forEach(date.datePoint(), visitor);
+    }
+
+    //Visits the repetitions on the day in the order they are stored, for writing the day out: adding them back in the same
+    //order rebuilds the day exactly.
+    void forEachStored(int day, ReviewVisitor visitor);
+
+    //Visits every day that has a bucket, emptied or not, in no particular order.
+    void forEachDay(IntConsumer action);
+
+    //A store holding the same days, built around the given fork of this store's table, in O(1). The two share every day until
+    //either writes to it, when that one copies the day first (see DayBucket); the first write after forking also copies the
+    //store's index of days, which holds only references.
+    DayStore fork(QuestionTable table);
+}
@@ -0,0 +1,182 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Arrays;
+
+//Summary statistics over a range of a flat float array, such as one cell's trials. The sums run on SIMD kernels from the
+//Vector API when the JVM was started with --add-modules jdk.incubator.vector, and on a scalar fallback otherwise. Both add in
+//the same order, so the results are bit for bit the same either way.
+public final class FloatStatistics {
+
+    //The population variance, like ParameterSweep.Summary's.
+    public record Moments(int count, double mean, double variance, float min, float max) {}
+
+    //The reductions the statistics are built from, over [from, to), which must hold a whole number of LANES-wide chunks. Sums
+    //are kept as LANES running float sums, folded into a double in lane order after every BLOCK values, which bounds the float
+    //rounding error however long the range and fixes the order of every addition.
+    interface Kernels {
+        int LANES = 8;
+        int BLOCK = 1024;
+
+        double sum(float[] values, int from, int to);
+
+        //The sum of (value - center)^2.
+        double sumOfSquares(float[] values, int from, int to, float center);
+
+        float min(float[] values, int from, int to);
+
+        float max(float[] values, int from, int to);
+    }
+
+    static final class ScalarKernels implements Kernels {
+
+        @Override
+        public double sum(float[] values, int from, int to) {
+            float[] lanes = new float[LANES];
+            double total = 0;
+            for(int block = from; block < to; block += BLOCK) {
+                int end = Math.min(to, block + BLOCK);
+                Arrays.fill(lanes, 0);
+                for(int i = block; i < end; i += LANES) {
+                    for(int lane = 0; lane < LANES; lane++) {
+                        lanes[lane] += values[i + lane];
+                    }
+                }
+                total += fold(lanes);
+            }
+            return total;
+        }
+
+        @Override
+        public double sumOfSquares(float[] values, int from, int to, float center) {
+            float[] lanes = new float[LANES];
+            double total = 0;
+            for(int block = from; block < to; block += BLOCK) {
+                int end = Math.min(to, block + BLOCK);
+                Arrays.fill(lanes, 0);
+                for(int i = block; i < end; i += LANES) {
+                    for(int lane = 0; lane < LANES; lane++) {
+                        float d = values[i + lane] - center;
+                        lanes[lane] += d * d;
+                    }
+                }
+                total += fold(lanes);
+            }
+            return total;
+        }
+
+        @Override
+        public float min(float[] values, int from, int to) {
+            float min = Float.POSITIVE_INFINITY;
+            for(int i = from; i < to; i++) {
+                min = Math.min(min, values[i]);
+            }
+            return min;
+        }
+
+        @Override
+        public float max(float[] values, int from, int to) {
+            float max = Float.NEGATIVE_INFINITY;
+            for(int i = from; i < to; i++) {
+                max = Math.max(max, values[i]);
+            }
+            return max;
+        }
+    }
+
+    //Adds the lanes into a double in lane order.
+    static double fold(float[] lanes) {
+        double total = 0;
+        for(float lane : lanes) {
+            total += lane;
+        }
+        return total;
+    }
+
+    private static final Kernels KERNELS = kernels();
+
+    private static Kernels kernels() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorKernels();
+            } catch(LinkageError e) {
+                //A JVM whose Vector API does not match the one compiled against.
+            }
+        }
+        return new ScalarKernels();
+    }
+
+    //Whether the SIMD kernels are in use.
+    public static boolean vectorized() {
+        return !(KERNELS instanceof ScalarKernels);
+    }
+
+    private FloatStatistics() {}
+
+    //The end of the whole chunks in [from, to).
+    private static int chunked(int from, int to) {
+        return from + ((to - from) & -Kernels.LANES);
+    }
+
+    public static double mean(float[] values, int from, int to) {
+        return mean(KERNELS, values, from, to);
+    }
+
+    static double mean(Kernels kernels, float[] values, int from, int to) {
+        if(from >= to) throw new IllegalArgumentException("Empty range");
+        int bound = chunked(from, to);
+        double sum = kernels.sum(values, from, bound);
+        for(int i = bound; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+
+    public static Moments moments(float[] values) {
+        return moments(values, 0, values.length);
+    }
+
+    public static Moments moments(float[] values, int from, int to) {
+        return moments(KERNELS, values, from, to);
+    }
+
+    static Moments moments(Kernels kernels, float[] values, int from, int to) {
+        double mean = mean(kernels, values, from, to);
+        int count = to - from;
+        int bound = chunked(from, to);
+        //Two passes, the second about the mean rounded to a float so it can run in float lanes; the rounding is then taken
+        //back out, as sum((v - c)^2) = sum((v - mean)^2) + n(mean - c)^2.
+        float center = (float) mean;
+        double squares = kernels.sumOfSquares(values, from, bound, center);
+        float min = kernels.min(values, from, bound);
+        float max = kernels.max(values, from, bound);
+        for(int i = bound; i < to; i++) {
+            double d = values[i] - center;
+            squares += d * d;
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        double shift = mean - center;
+        double variance = Math.max(0, squares / count - shift * shift);
+        return new Moments(count, mean, variance, min, max);
+    }
+
+    //The nearest-rank percentiles (0 < p <= 100) of [from, to), which is left as it was.
+    public static float[] percentiles(float[] values, int from, int to, double... percents) {
+        if(from >= to) throw new IllegalArgumentException("Empty range");
+        float[] sorted = Arrays.copyOfRange(values, from, to);
+        Arrays.sort(sorted);
+        float[] result = new float[percents.length];
+        for(int i = 0; i < percents.length; i++) {
+            if(percents[i] <= 0 || percents[i] > 100) throw new IllegalArgumentException("Percentile " + percents[i]);
+            int rank = (int) Math.ceil(percents[i] / 100.0 * sorted.length);
+            result[i] = sorted[Math.max(0, rank - 1)];
+        }
+        return result;
+    }
+}
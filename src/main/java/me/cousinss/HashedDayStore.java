@@ -0,0 +1,153 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+class HashedDayStore implements DayStore {
+
+    private final QuestionTable table;
+    private final DayOrder order;
+    private Map<Date, DayBucket> calendar;
+    //Buckets made by another owner, and the map itself if shared, are copied before they are written to.
+    private Object owner = new Object();
+    private boolean shared;
+
+    HashedDayStore(QuestionTable table, DayOrder order) {
+        this(table, order, new HashMap<>());
+    }
+
+    private HashedDayStore(QuestionTable table, DayOrder order, Map<Date, DayBucket> calendar) {
+        this.table = table;
+        this.order = order;
+        this.calendar = calendar;
+    }
+
+    //The day's bucket, ready to be written to by this store, or null if the day has none.
+    private DayBucket writable(Date date) {
+        if(shared) {
+            calendar = new HashMap<>(calendar);
+            shared = false;
+        }
+        DayBucket bucket = calendar.get(date);
+        if(bucket != null && bucket.owner != owner) {
+            bucket = bucket.copy(owner);
+            calendar.put(date, bucket);
+        }
+        return bucket;
+    }
+
+    @Override
+    public boolean hasDay(int day) {
+        return calendar.containsKey(new Date(day));
+    }
+
+    @Override
+    public int size(int day) {
+        return size(new Date(day));
+    }
+
+    @Override
+    public int size(Date date) {
+        DayBucket day = calendar.get(date);
+        return day == null ? 0 : day.size();
+    }
+
+    @Override
+    public void add(int day, long repetition) {
+        Date date = new Date(day);
+        DayBucket bucket = writable(date);
+        if(bucket == null) {
+            bucket = order.newBucket(owner);
+            calendar.put(date, bucket);
+        }
+        bucket.add(table, repetition);
+    }
+
+    @Override
+    public void addDay(int day) {
+        Date date = new Date(day);
+        if(writable(date) == null) {
+            calendar.put(date, order.newBucket(owner));
+        }
+    }
+
+    @Override
+    public long peekLast(int day) {
+        DayBucket bucket = calendar.get(new Date(day));
+        return bucket == null ? QuestionTable.NONE : bucket.last();
+    }
+
+    @Override
+    public long pollLast(int day) {
+        Date date = new Date(day);
+        DayBucket bucket = calendar.get(date);
+        return bucket == null || bucket.size() == 0 ? QuestionTable.NONE : writable(date).pollLast();
+    }
+
+    @Override
+    public long get(int day, int questionId, int spaceID) {
+        DayBucket bucket = calendar.get(new Date(day));
+        int i = bucket == null ? -1 : bucket.find(table, questionId, spaceID);
+        return i < 0 ? QuestionTable.NONE : bucket.stored(i);
+    }
+
+    @Override
+    public int spaceIDOf(int day, int question) {
+        DayBucket bucket = calendar.get(new Date(day));
+        return bucket == null ? -1 : bucket.spaceIDOf(question);
+    }
+
+    @Override
+    public long remove(int day, int questionId, int spaceID) {
+        Date date = new Date(day);
+        DayBucket bucket = calendar.get(date);
+        int i = bucket == null ? -1 : bucket.find(table, questionId, spaceID);
+        return i < 0 ? QuestionTable.NONE : writable(date).removeAt(i);
+    }
+
+    @Override
+    public void forEach(int day, ReviewVisitor visitor) {
+        forEach(new Date(day), visitor);
+    }
+
+    @Override
+    public void forEach(Date date, ReviewVisitor visitor) {
+        DayBucket day = calendar.get(date);
+        if(day == null) {
+            return;
+        }
+        for(int i = 0; i < day.size(); i++) {
+            table.visit(day.asked(i), visitor);
+        }
+    }
+
+    @Override
+    public void forEachStored(int day, ReviewVisitor visitor) {
+        DayBucket bucket = calendar.get(new Date(day));
+        for(int i = 0; bucket != null && i < bucket.size(); i++) {
+            table.visit(bucket.stored(i), visitor);
+        }
+    }
+
+    @Override
+    public void forEachDay(IntConsumer action) {
+        calendar.keySet().forEach(date -> action.accept(date.datePoint()));
+    }
+
+    @Override
+    public DayStore fork(QuestionTable table) {
+        HashedDayStore fork = new HashedDayStore(table, order, calendar);
+        fork.shared = true;
+        shared = true;
+        //Every existing bucket now belongs to neither store.
+        owner = new Object();
+        return fork;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//A distribution of non-negative longs in logarithmic buckets, after HdrHistogram: values below 8 are counted exactly, and
+//every power-of-two range above is split into 4 equal buckets, so a bucket is never wider than a quarter of the values it
+//holds (about 2 significant bits) and the whole long range fits in 248 buckets. Recording is lock-free and safe from any
+//thread; reads are not a consistent snapshot while values are being recorded.
+public final class Histogram {
+
+    private static final int EXACT = 8;
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = EXACT + (63 - 3) * SUB_BUCKETS;
+
+    //The bucket holding the value: exact below EXACT, otherwise the power of two (from 2^3) and the quarter within it.
+    static int bucket(long value) {
+        if(value < EXACT) {
+            return (int) value;
+        }
+        int power = 63 - Long.numberOfLeadingZeros(value);
+        int quarter = (int) (value >>> (power - 2)) & (SUB_BUCKETS - 1);
+        return EXACT + (power - 3) * SUB_BUCKETS + quarter;
+    }
+
+    //The smallest value in the bucket.
+    public static long lowestValue(int bucket) {
+        if(bucket < EXACT) {
+            return bucket;
+        }
+        int power = (bucket - EXACT) / SUB_BUCKETS + 3;
+        int quarter = (bucket - EXACT) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + quarter) << (power - 2);
+    }
+
+    //The largest value in the bucket.
+    public static long highestValue(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : lowestValue(bucket + 1) - 1;
+    }
+
+    public static int buckets() {
+        return BUCKETS;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    //Records the value; negative values (such as a clock going backwards) are recorded as 0.
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucket(v));
+        sum.addAndGet(v);
+        if(v > max.get()) {
+            max.accumulateAndGet(v, Math::max);
+        }
+    }
+
+    //Adds every value recorded by the other histogram into this one.
+    public void add(Histogram other) {
+        for(int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if(count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long count(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public long count() {
+        long count = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long sum() {
+        return sum.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    //The nearest-rank percentile (0 < p <= 100), as the highest value of its bucket (but never above the maximum), or 0 if
+    //nothing has been recorded.
+    public long percentile(double p) {
+        if(p <= 0 || p > 100) throw new IllegalArgumentException("Percentile " + p);
+        long rank = (long) Math.ceil(p / 100 * count());
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if(seen >= rank && seen > 0) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count() + " mean=" + mean() + " p50=" + percentile(50) + " p99=" + percentile(99) + " max=" + max();
+    }
+}
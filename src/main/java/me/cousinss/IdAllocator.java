@@ -0,0 +1,30 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Hands out unique, increasing ids. Safe to share between threads.
+public final class IdAllocator {
+
+    private static final IdAllocator GLOBAL = new IdAllocator(0);
+
+    //The allocator used by questions that are not given one explicitly.
+    public static IdAllocator global() {
+        return GLOBAL;
+    }
+
+    private final AtomicInteger nextID;
+
+    public IdAllocator(int firstID) {
+        this.nextID = new AtomicInteger(firstID);
+    }
+
+    public int next() {
+        return nextID.getAndIncrement();
+    }
+}
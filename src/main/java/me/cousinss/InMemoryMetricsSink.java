@@ -0,0 +1,56 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Keeps the latest export of each metric, by name, in export order. Safe to share between threads.
+public class InMemoryMetricsSink implements MetricsSink {
+
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+    private final Map<String, Histogram> distributions = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void counter(String name, long value) {
+        counters.put(name, value);
+    }
+
+    @Override
+    public synchronized void distribution(String name, Histogram histogram) {
+        Histogram copy = new Histogram();
+        copy.add(histogram);
+        distributions.put(name, copy);
+    }
+
+    //The counter's last exported value, or 0 if it has not been exported.
+    public synchronized long getCounter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    //A copy of the distribution as last exported, or null if it has not been exported.
+    public synchronized Histogram getDistribution(String name) {
+        return distributions.get(name);
+    }
+
+    public synchronized List<String> counterNames() {
+        return List.copyOf(counters.keySet());
+    }
+
+    public synchronized List<String> distributionNames() {
+        return List.copyOf(distributions.keySet());
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder out = new StringBuilder();
+        counters.forEach((name, value) -> out.append(name).append(' ').append(value).append('\n'));
+        distributions.forEach((name, histogram) -> out.append(name).append(' ').append(histogram).append('\n'));
+        return out.toString();
+    }
+}
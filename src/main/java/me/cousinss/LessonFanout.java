@@ -0,0 +1,225 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+//Adds a lesson to every calendar in a cohort of learners held by a CalendarRegistry, spread over a fixed set of worker threads.
+//Each worker owns a fixed subset of the registry's stripes, so workers never contend for a lock with each other (only with the
+//service's own calls), and is fed batches of its learners through its own bounded queue: when a worker falls behind, enroll
+//blocks rather than buffering the cohort. Each learner's lesson goes in with one addAllWithSpacing, so one repair per learner.
+public class LessonFanout implements Closeable {
+
+    //The timing of one batch: how long it waited in its worker's queue and how long its inserts took.
+    public record BatchReport(int worker, int learners, long waitNanos, long insertNanos) {}
+
+    //The totals for one enroll call.
+    public record Report(int learners, int batches, long elapsedNanos) {
+
+        public double learnersPerSecond() {
+            return elapsedNanos == 0 ? 0 : learners * 1e9 / elapsedNanos;
+        }
+    }
+
+    //One enroll call, shared by its batches.
+    private static final class Enrollment {
+        private final List<Question> lesson;
+        private final Date dateBasis;
+        private final SpacedRepetition spacing;
+        private final Consumer<BatchReport> listener;
+        //Every batch registers with the phaser when queued and arrives when done.
+        private final Phaser outstanding = new Phaser(1);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private Enrollment(List<Question> lesson, Date dateBasis, SpacedRepetition spacing, Consumer<BatchReport> listener) {
+            this.lesson = lesson;
+            this.dateBasis = dateBasis;
+            this.spacing = spacing;
+            this.listener = listener;
+        }
+    }
+
+    private static final class Batch {
+        private final Enrollment enrollment;
+        private final long[] learners;
+        private final int count;
+        private final long queuedAt;
+
+        private Batch(Enrollment enrollment, long[] learners, int count) {
+            this.enrollment = enrollment;
+            this.learners = learners;
+            this.count = count;
+            this.queuedAt = System.nanoTime();
+        }
+    }
+
+    //Tells a worker to exit.
+    private static final Batch STOP = new Batch(null, new long[0], 0);
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    //Batches queued per worker before enroll blocks.
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private final CalendarRegistry registry;
+    private final int batchSize;
+    private final BlockingQueue<Batch>[] queues;
+    private final Thread[] workers;
+    private volatile boolean closed;
+
+    public LessonFanout(CalendarRegistry registry) {
+        this(registry, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    //There are never more workers than the registry has stripes.
+    public LessonFanout(CalendarRegistry registry, int workers, int batchSize, int queueCapacity) {
+        if(workers <= 0 || batchSize <= 0 || queueCapacity <= 0) throw new IllegalArgumentException();
+        this.registry = registry;
+        this.batchSize = batchSize;
+        int count = Math.min(workers, registry.stripes());
+        this.queues = newQueues(count, queueCapacity);
+        this.workers = new Thread[count];
+        for(int w = 0; w < count; w++) {
+            BlockingQueue<Batch> queue = queues[w];
+            int worker = w;
+            this.workers[w] = new Thread(() -> work(worker, queue), "lesson-fanout-" + w);
+            this.workers[w].setDaemon(true);
+            this.workers[w].start();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static BlockingQueue<Batch>[] newQueues(int count, int capacity) {
+        BlockingQueue<Batch>[] queues = new BlockingQueue[count];
+        for(int w = 0; w < count; w++) {
+            queues[w] = new ArrayBlockingQueue<>(capacity);
+        }
+        return queues;
+    }
+
+    public int workers() {
+        return workers.length;
+    }
+
+    //The worker that owns the learner's stripe.
+    private int worker(long learnerID) {
+        return registry.stripe(learnerID) % workers.length;
+    }
+
+    public Report enroll(Collection<? extends Question> lesson, Date dateBasis, SpacedRepetition spacing, long[] learnerIDs)
+            throws InterruptedException {
+        return enroll(lesson, dateBasis, spacing, learnerIDs, report -> {});
+    }
+
+    //Adds the lesson's questions to each learner's calendar with the given spacing, returning once every learner has it. The
+    //questions and spacing are shared by every calendar, so the spacing must not be per-question state (an
+    //AdaptiveSpacedRepetition). The listener is called from the worker threads as each batch completes. If an insert fails,
+    //the remaining batches are dropped and the failure is rethrown here; learners already enrolled keep the lesson.
+    public Report enroll(Collection<? extends Question> lesson, Date dateBasis, SpacedRepetition spacing, long[] learnerIDs,
+                         Consumer<BatchReport> listener) throws InterruptedException {
+        if(spacing instanceof AdaptiveSpacedRepetition) throw new IllegalArgumentException("Adaptive schedules are per question");
+        if(closed) throw new IllegalStateException("Closed");
+        long start = System.nanoTime();
+        Enrollment enrollment = new Enrollment(List.copyOf(lesson), dateBasis, spacing, listener);
+        long[][] pending = new long[workers.length][];
+        int[] filled = new int[workers.length];
+        int batches = 0;
+        try {
+            for(long learnerID : learnerIDs) {
+                if(enrollment.failure.get() != null) break;
+                int w = worker(learnerID);
+                if(pending[w] == null) {
+                    pending[w] = new long[batchSize];
+                }
+                pending[w][filled[w]++] = learnerID;
+                if(filled[w] == batchSize) {
+                    dispatch(w, new Batch(enrollment, pending[w], batchSize));
+                    batches++;
+                    pending[w] = null;
+                    filled[w] = 0;
+                }
+            }
+            for(int w = 0; w < workers.length; w++) {
+                if(filled[w] > 0 && enrollment.failure.get() == null) {
+                    dispatch(w, new Batch(enrollment, pending[w], filled[w]));
+                    batches++;
+                }
+            }
+        } finally {
+            //Wait out the batches already queued even when interrupted, so none runs after enroll has returned.
+            enrollment.outstanding.arriveAndAwaitAdvance();
+        }
+        Throwable failure = enrollment.failure.get();
+        if(failure instanceof RuntimeException e) throw e;
+        if(failure instanceof Error e) throw e;
+        return new Report(learnerIDs.length, batches, System.nanoTime() - start);
+    }
+
+    private void dispatch(int worker, Batch batch) throws InterruptedException {
+        batch.enrollment.outstanding.register();
+        try {
+            queues[worker].put(batch);
+        } catch(InterruptedException e) {
+            batch.enrollment.outstanding.arriveAndDeregister();
+            throw e;
+        }
+    }
+
+    private void work(int worker, BlockingQueue<Batch> queue) {
+        while(true) {
+            Batch batch;
+            try {
+                batch = queue.take();
+            } catch(InterruptedException e) {
+                return;
+            }
+            if(batch == STOP) return;
+            Enrollment enrollment = batch.enrollment;
+            try {
+                if(enrollment.failure.get() != null) continue;
+                long begin = System.nanoTime();
+                for(int i = 0; i < batch.count; i++) {
+                    registry.addAllWithSpacing(batch.learners[i], enrollment.lesson, enrollment.dateBasis, enrollment.spacing);
+                }
+                long end = System.nanoTime();
+                enrollment.listener.accept(new BatchReport(worker, batch.count, begin - batch.queuedAt, end - begin));
+            } catch(Throwable t) {
+                enrollment.failure.compareAndSet(null, t);
+            } finally {
+                enrollment.outstanding.arriveAndDeregister();
+            }
+        }
+    }
+
+    //Stops the workers once they have finished the batches already queued. Call it only after every enroll has returned.
+    //Workers are stopped with a marker rather than interrupted, as an interrupt would close a PersistentCalendar's channel.
+    @Override
+    public void close() {
+        if(closed) return;
+        closed = true;
+        boolean interrupted = false;
+        for(BlockingQueue<Batch> queue : queues) {
+            while(true) {
+                try {
+                    queue.put(STOP);
+                    break;
+                } catch(InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Arrays;
+
+//An open-addressed (linear probing) long to int map, so that hot lookups neither box keys nor allocate entries.
+//Long.MIN_VALUE is reserved to mark free slots and cannot be used as a key.
+class LongIntMap {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntMap() {
+        this(16);
+    }
+
+    LongIntMap(int expected) {
+        int capacity = capacity(expected);
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    private LongIntMap(LongIntMap from) {
+        keys = from.keys.clone();
+        values = from.values.clone();
+        size = from.size;
+    }
+
+    LongIntMap copy() {
+        return new LongIntMap(this);
+    }
+
+    private static int capacity(int expected) {
+        return Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while(keys[i] != FREE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(long key) {
+        return keys[slot(key)] != FREE;
+    }
+
+    //The value mapped to the key, or the given default if there is none.
+    int get(long key, int otherwise) {
+        int i = slot(key);
+        return keys[i] == FREE ? otherwise : values[i];
+    }
+
+    void put(long key, int value) {
+        if(key == FREE) throw new IllegalArgumentException();
+        int i = slot(key);
+        if(keys[i] == FREE) {
+            if((size + 1) * 2 > keys.length) {
+                grow();
+                i = slot(key);
+            }
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+    }
+
+    //Removes the key, returning whether it was present. Later entries of the probe run are shifted back so no tombstones are needed.
+    boolean remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        if(keys[i] == FREE) {
+            return false;
+        }
+        int j = i;
+        while(true) {
+            j = (j + 1) & mask;
+            if(keys[j] == FREE) {
+                break;
+            }
+            int home = mix(keys[j]) & mask;
+            //Move the entry at j into the hole at i, unless its home slot lies cyclically in (i, j].
+            if(i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = FREE;
+        size--;
+        return true;
+    }
+
+    //Grows the map ahead of time to hold the expected number of keys without rehashing.
+    void reserve(int expected) {
+        int capacity = capacity(expected);
+        if(capacity > keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    private void grow() {
+        rehash(keys.length * 2);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        for(int k = 0; k < oldKeys.length; k++) {
+            if(oldKeys[k] != FREE) {
+                int i = slot(oldKeys[k]);
+                keys[i] = oldKeys[k];
+                values[i] = oldValues[k];
+            }
+        }
+    }
+}
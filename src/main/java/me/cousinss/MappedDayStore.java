@@ -0,0 +1,215 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+//A DayStore whose days stay in a mapped snapshot (see PersistentCalendar) until they are first written to, so that a
+//calendar read back in holds only the days it has changed since on the heap, and the rest are paged in by the OS as they are
+//read. A day is read straight from its records; the first write to it adds them to a heap store of the calendar's backend,
+//in the order they were written, which rebuilds the day exactly, and the day is served from there on.
+//The snapshot's records are fixed-width: int day, int question id, int spaceID, int schedule (an index into the schedules
+//given), grouped by day in ascending order and in stored order within the day. Besides the records, the store keeps three
+//ints and a bit per mapped day. A fork shares the mapping and copies the bits, in O(days / 64).
+final class MappedDayStore implements DayStore {
+
+    static final int RECORD_BYTES = 16;
+
+    private final QuestionTable table;
+    private final DayOrder order;
+    //The days written to since the snapshot was mapped.
+    private final DayStore heap;
+    private final ByteBuffer records;
+    //The table's number for each schedule a record can refer to.
+    private final int[] schedules;
+    //The mapped days in ascending order, with the first of their records and their record count (0 for an emptied day).
+    private final int[] days;
+    private final int[] first;
+    private final int[] count;
+    //The mapped days that have since been moved to the heap store.
+    private BitSet paged;
+
+    //A store over the records (which must hold only whole records, checked by the caller), the emptied days (ascending) and
+    //the schedules the records refer to, all of whose questions the table already holds.
+    MappedDayStore(QuestionTable table, DayOrder order, DayStore heap, ByteBuffer records, int[] emptied,
+                   SpacedRepetition[] schedules) {
+        this.table = table;
+        this.order = order;
+        this.heap = heap;
+        this.records = records;
+        this.schedules = new int[schedules.length];
+        for(int s = 0; s < schedules.length; s++) {
+            this.schedules[s] = table.index(schedules[s]);
+        }
+        int numRecords = records.capacity() / RECORD_BYTES;
+        int numDays = emptied.length;
+        for(int r = 0; r < numRecords; r++) {
+            if(r == 0 || day(r) != day(r - 1)) {
+                numDays++;
+            }
+        }
+        days = new int[numDays];
+        first = new int[numDays];
+        count = new int[numDays];
+        int d = 0;
+        int e = 0;
+        for(int r = 0; r < numRecords; r++) {
+            if(r == 0 || day(r) != day(r - 1)) {
+                for(; e < emptied.length && emptied[e] < day(r); e++, d++) {
+                    days[d] = emptied[e];
+                }
+                days[d] = day(r);
+                first[d++] = r;
+            }
+            count[d - 1]++;
+        }
+        for(; e < emptied.length; e++, d++) {
+            days[d] = emptied[e];
+        }
+        paged = new BitSet(numDays);
+    }
+
+    private MappedDayStore(MappedDayStore from, QuestionTable table) {
+        this.table = table;
+        this.order = from.order;
+        this.heap = from.heap.fork(table);
+        this.records = from.records.duplicate();
+        this.schedules = from.schedules;
+        this.days = from.days;
+        this.first = from.first;
+        this.count = from.count;
+        this.paged = (BitSet) from.paged.clone();
+    }
+
+    private int day(int r) {
+        return records.getInt(r * RECORD_BYTES);
+    }
+
+    private long repetition(int r) {
+        int at = r * RECORD_BYTES;
+        return QuestionTable.pack(records.getInt(at + 8), schedules[records.getInt(at + 12)],
+                table.indexOf(records.getInt(at + 4)));
+    }
+
+    //The day's position in days, or -1 if the day is not (or no longer) mapped.
+    private int mapped(int day) {
+        int d = Arrays.binarySearch(days, day);
+        return d < 0 || paged.get(d) ? -1 : d;
+    }
+
+    //Moves the day to the heap store ahead of a write, if it is still mapped.
+    private void page(int day) {
+        int d = mapped(day);
+        if(d < 0) {
+            return;
+        }
+        paged.set(d);
+        heap.addDay(day);
+        for(int r = first[d]; r < first[d] + count[d]; r++) {
+            heap.add(day, repetition(r));
+        }
+    }
+
+    @Override
+    public boolean hasDay(int day) {
+        return mapped(day) >= 0 || heap.hasDay(day);
+    }
+
+    @Override
+    public int size(int day) {
+        int d = mapped(day);
+        return d < 0 ? heap.size(day) : count[d];
+    }
+
+    @Override
+    public void add(int day, long repetition) {
+        page(day);
+        heap.add(day, repetition);
+    }
+
+    @Override
+    public void addDay(int day) {
+        page(day);
+        heap.addDay(day);
+    }
+
+    @Override
+    public long peekLast(int day) {
+        int d = mapped(day);
+        if(d < 0) {
+            return heap.peekLast(day);
+        }
+        //A HEAP day's root is its first record, and a SORTED day's lowest priority its last (see DayBucket).
+        return count[d] == 0 ? QuestionTable.NONE : repetition(order == DayOrder.HEAP ? first[d] : first[d] + count[d] - 1);
+    }
+
+    @Override
+    public long pollLast(int day) {
+        page(day);
+        return heap.pollLast(day);
+    }
+
+    @Override
+    public long get(int day, int questionId, int spaceID) {
+        page(day);
+        return heap.get(day, questionId, spaceID);
+    }
+
+    //Called ahead of every add to the day, so it is paged in here rather than scanned.
+    @Override
+    public int spaceIDOf(int day, int question) {
+        page(day);
+        return heap.spaceIDOf(day, question);
+    }
+
+    @Override
+    public long remove(int day, int questionId, int spaceID) {
+        page(day);
+        return heap.remove(day, questionId, spaceID);
+    }
+
+    @Override
+    public void forEach(int day, ReviewVisitor visitor) {
+        int d = mapped(day);
+        if(d < 0) {
+            heap.forEach(day, visitor);
+            return;
+        }
+        //A HEAP day is asked from the end of its array, and a SORTED day from the start (see DayBucket).
+        for(int i = 0; i < count[d]; i++) {
+            table.visit(repetition(order == DayOrder.HEAP ? first[d] + count[d] - 1 - i : first[d] + i), visitor);
+        }
+    }
+
+    @Override
+    public void forEachStored(int day, ReviewVisitor visitor) {
+        int d = mapped(day);
+        if(d < 0) {
+            heap.forEachStored(day, visitor);
+            return;
+        }
+        for(int r = first[d]; r < first[d] + count[d]; r++) {
+            table.visit(repetition(r), visitor);
+        }
+    }
+
+    @Override
+    public void forEachDay(IntConsumer action) {
+        for(int d = paged.nextClearBit(0); d < days.length; d = paged.nextClearBit(d + 1)) {
+            action.accept(days[d]);
+        }
+        heap.forEachDay(action);
+    }
+
+    @Override
+    public DayStore fork(QuestionTable table) {
+        return new MappedDayStore(this, table);
+    }
+}
@@ -0,0 +1,16 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+//Receives exported metrics (see CalendarMetrics.export), to be kept or forwarded to a monitoring system. The histogram passed
+//to distribution may go on changing after the call, so a sink that keeps it should copy it.
+public interface MetricsSink {
+
+    void counter(String name, long value);
+
+    void distribution(String name, Histogram histogram);
+}
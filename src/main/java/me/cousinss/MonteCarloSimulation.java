@@ -0,0 +1,211 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+//Runs the lesson-feed/skip simulation over a grid of (skipChance, feedChance) cells, many iterations per cell. Every
+//(skipChance, feedChance, iteration) trial is independent and runs as its own task, with its own random stream drawn up front
+//from the seed, so the results are the same whatever the pool's parallelism.
+public class MonteCarloSimulation {
+
+    //Totals the questions asked and how late they are.
+    static final class LateCounter implements DatedReviewVisitor {
+        private final ReviewCalendar calendar;
+        int questions;
+        int daysLate;
+
+        LateCounter(ReviewCalendar calendar) {
+            this.calendar = calendar;
+        }
+
+        @Override
+        public void visit(Date date, Question question, int spaceID, SpacedRepetition repetition) {
+            questions++;
+            daysLate += ReviewCalendar.daysLate(spaceID, repetition, calendar.indexBasis(question), date);
+        }
+    }
+
+    //The abandon model used, which skips questions if they're about 14 days late (with smoothing), compiled once for every trial
+    //(and shared with TraceReplay).
+    static final AbandonTable ABANDON_POLICY = AbandonTable.compile(AbandonPolicy.smoothed(14));
+
+    //The averaged results, laid out as GraphicDemo expects: [0][c] holds the feedChance headers, [r][0] the skipChance
+    //headers, and [r][c] the average over iterations for the cell.
+    public record Result(float[][] late, float[][] abandoned) {}
+
+    //The values of the (float-accumulated) loop for(v = from; v <= to; v += step).
+    public static float[] steps(float from, double to, float step) {
+        int n = 0;
+        for(float v = from; v <= to; v += step) {
+            n++;
+        }
+        float[] values = new float[n];
+        float v = from;
+        for(int i = 0; i < n; i++, v += step) {
+            values[i] = v;
+        }
+        return values;
+    }
+
+    private final SpacedRepetition schedule;
+    //The maximum questions that can be asked per day, which is also the largest lesson.
+    private final int maxDayFeed;
+    //The expected fraction (questions/lesson)/(maxDayFeed).
+    private final float feedProp;
+    //The end date of each trial. Be aware that questions can be pushed out after this date.
+    private final int endDate;
+    private final int iterations;
+    private final float[] feedChances;
+    private final float[] skipChances;
+    private final long seed;
+    private final SimulationClock clock;
+
+    public MonteCarloSimulation(SpacedRepetition schedule, int maxDayFeed, float feedProp, int endDate, int iterations,
+                                float[] feedChances, float[] skipChances, long seed) {
+        this(schedule, maxDayFeed, feedProp, endDate, iterations, feedChances, skipChances, seed, SimulationClock.DAILY);
+    }
+
+    public MonteCarloSimulation(SpacedRepetition schedule, int maxDayFeed, float feedProp, int endDate, int iterations,
+                                float[] feedChances, float[] skipChances, long seed, SimulationClock clock) {
+        this.schedule = schedule;
+        this.maxDayFeed = maxDayFeed;
+        this.feedProp = feedProp;
+        this.endDate = endDate;
+        this.iterations = iterations;
+        this.feedChances = feedChances;
+        this.skipChances = skipChances;
+        this.seed = seed;
+        this.clock = clock;
+    }
+
+    public Result run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    public Result run(ForkJoinPool pool) {
+        int trials = skipChances.length * feedChances.length * iterations;
+        //Trial t is cell (t / iterations), iteration (t % iterations), where cell = skipIndex * feedChances.length + feedIndex.
+        long[] seeds = new long[trials];
+        SplittableRandom root = new SplittableRandom(seed);
+        for(int t = 0; t < trials; t++) {
+            seeds[t] = root.nextLong();
+        }
+        float[] late = new float[trials];
+        float[] abandoned = new float[trials];
+        pool.submit(() -> IntStream.range(0, trials).parallel().forEach(t -> {
+            int cell = t / iterations;
+            float[] result = trial(clock, schedule, maxDayFeed, feedProp, endDate, feedChances[cell % feedChances.length],
+                    skipChances[cell / feedChances.length], new SplittableRandom(seeds[t]));
+            late[t] = result[0];
+            abandoned[t] = result[1];
+        })).join();
+        return new Result(average(late), average(abandoned));
+    }
+
+    //Averages each cell's iterations into the GraphicDemo layout.
+    private float[][] average(float[] trials) {
+        float[][] averaged = new float[skipChances.length + 1][feedChances.length + 1];
+        for(int c = 0; c < feedChances.length; c++) {
+            averaged[0][c + 1] = feedChances[c];
+        }
+        for(int r = 0; r < skipChances.length; r++) {
+            averaged[r + 1][0] = skipChances[r];
+            for(int c = 0; c < feedChances.length; c++) {
+                int first = (r * feedChances.length + c) * iterations;
+                averaged[r + 1][c + 1] = (float) FloatStatistics.mean(trials, first, first + iterations);
+            }
+        }
+        return averaged;
+    }
+
+    static float[] trial(SpacedRepetition schedule, int maxDayFeed, float feedProp, int endDate, float feedChance, float skipChance,
+                         SplittableRandom random) {
+        return trial(SimulationClock.DAILY, schedule, maxDayFeed, feedProp, endDate, feedChance, skipChance, random);
+    }
+
+    //Runs one trial, returning {average days late, proportion of questions abandoned}. maxDayFeed caps both the questions
+    //asked per day and the size of a lesson, and endDate is the calendar's cutoff.
+    static float[] trial(SimulationClock clock, SpacedRepetition schedule, int maxDayFeed, float feedProp, int endDate, float feedChance,
+                         float skipChance, SplittableRandom random) {
+        //Question ids only need to be unique within the trial's calendar.
+        IdAllocator ids = new IdAllocator(0);
+        ReviewCalendar calendar = new PolicyCalendar(maxDayFeed, new Date(endDate), ABANDON_POLICY, random);
+        if(clock == SimulationClock.DAILY) {
+            for (int day = 0; day < endDate; day++) {
+                Date date = new Date(day);
+                //Post a lesson depending on feedChance.
+                if(random.nextFloat() < feedChance) {
+                    postLesson(calendar, ids, schedule, maxDayFeed, feedProp, date, random);
+                }
+                skipSome(calendar, skipChance, date, random);
+            }
+        } else {
+            int nextLesson = nextLessonDay(0, feedChance, endDate, random);
+            int day = 0;
+            while(true) {
+                Date nextReview = calendar.nextDate(new Date(day));
+                day = Math.min(nextLesson, nextReview == null ? Integer.MAX_VALUE : nextReview.datePoint());
+                if(day >= endDate) break;
+                Date date = new Date(day);
+                if(day == nextLesson) {
+                    postLesson(calendar, ids, schedule, maxDayFeed, feedProp, date, random);
+                    nextLesson = nextLessonDay(day + 1, feedChance, endDate, random);
+                }
+                skipSome(calendar, skipChance, date, random);
+                day++;
+            }
+        }
+        //Count the days late over every question asked, including those pushed out past the end date.
+        LateCounter late = new LateCounter(calendar);
+        Date latest = calendar.latestDate();
+        if(latest != null) {
+            calendar.forEachBetween(new Date(0), new Date(latest.datePoint() + 1), late);
+        }
+        float avgLate = (float) late.daysLate / late.questions;
+        float abandonedPortion = (float) calendar.getNumAbandoned() / calendar.getNumAdded();
+        return new float[] {Float.isNaN(avgLate) ? 0 : avgLate, Float.isNaN(abandonedPortion) ? 0 : abandonedPortion};
+    }
+
+    //Posts a set of questions (for the lesson) with an expected size of (maxDayFeed * feedProp).
+    private static void postLesson(ReviewCalendar calendar, IdAllocator ids, SpacedRepetition schedule, int maxDayFeed, float feedProp,
+                                   Date date, SplittableRandom random) {
+        List<Question> lesson = new ArrayList<>(maxDayFeed);
+        for (int q = 0; q < maxDayFeed; q++) {
+            if(random.nextFloat() < feedProp) {
+                lesson.add(new Question("Q" + date.datePoint() + "." + q, date.datePoint(), ids));
+            }
+        }
+        calendar.addAllWithSpacing(lesson, date, schedule);
+    }
+
+    //Skip a number of questions with an expected value equal to (# questions asked today) * (skipChance)
+    private static void skipSome(ReviewCalendar calendar, float skipChance, Date date, SplittableRandom random) {
+        int count = calendar.count(date);
+        int skips = (int) (random.nextFloat() * skipChance * count);
+        if(skips > 0) {
+            calendar.skip(date, skips);
+        }
+    }
+
+    //The first day from the given one that a lesson is posted on, when each day has one with probability feedChance, or
+    //Integer.MAX_VALUE if that is on or after endDate. The number of lesson-less days before it is geometric, drawn by inversion.
+    private static int nextLessonDay(int from, float feedChance, int endDate, SplittableRandom random) {
+        if(feedChance >= 1) {
+            return from < endDate ? from : Integer.MAX_VALUE;
+        }
+        if(feedChance <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        double gap = Math.floor(Math.log(1 - random.nextDouble()) / Math.log1p(-feedChance));
+        return gap < endDate - from ? from + (int) gap : Integer.MAX_VALUE;
+    }
+}
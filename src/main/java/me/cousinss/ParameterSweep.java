@@ -0,0 +1,238 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import me.cousinss.graphic.HeatmapSweepSink;
+import me.cousinss.graphic.LiveSweepView;
+
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+//Runs the MonteCarloSimulation trial over the full cartesian grid of the given parameter values, streaming a summary of each
+//cell to a SweepSink. Cells are never materialized as a list: cell i is decoded from its index, cells run in parallel a
+//bounded window at a time, and only the current window's trials are held in memory, so the grid size is limited by time only.
+//Each cell's random stream is derived from the seed and the cell index, so results do not depend on the pool or the window.
+public class ParameterSweep {
+
+    //One point of the grid. schedule is an index into the sweep's schedules, and cutoff is both the calendar cutoff and the
+    //last day lessons are posted.
+    public record Cell(long index, int schedule, int maxPerDate, int cutoff, float feedProp, float feedChance, float skipChance) {}
+
+    //The distribution of one result over a cell's iterations. Percentiles are nearest-rank.
+    public record Summary(float mean, float variance, float p10, float p50, float p90) {
+
+        static Summary of(float[] values) {
+            FloatStatistics.Moments moments = FloatStatistics.moments(values);
+            float[] percentiles = FloatStatistics.percentiles(values, 0, values.length, 10, 50, 90);
+            return new Summary((float) moments.mean(), (float) moments.variance(), percentiles[0], percentiles[1], percentiles[2]);
+        }
+    }
+
+    private final List<SpacedRepetition> schedules;
+    private final int[] maxPerDates;
+    private final int[] cutoffs;
+    private final float[] feedProps;
+    private final float[] feedChances;
+    private final float[] skipChances;
+    private final int iterations;
+    private final long seed;
+    private final SimulationClock clock;
+
+    public ParameterSweep(List<SpacedRepetition> schedules, int[] maxPerDates, int[] cutoffs, float[] feedProps, float[] feedChances,
+                          float[] skipChances, int iterations, long seed) {
+        this(schedules, maxPerDates, cutoffs, feedProps, feedChances, skipChances, iterations, seed, SimulationClock.DAILY);
+    }
+
+    public ParameterSweep(List<SpacedRepetition> schedules, int[] maxPerDates, int[] cutoffs, float[] feedProps, float[] feedChances,
+                          float[] skipChances, int iterations, long seed, SimulationClock clock) {
+        if(iterations <= 0) throw new IllegalArgumentException();
+        this.schedules = List.copyOf(schedules);
+        this.maxPerDates = maxPerDates.clone();
+        this.cutoffs = cutoffs.clone();
+        this.feedProps = feedProps.clone();
+        this.feedChances = feedChances.clone();
+        this.skipChances = skipChances.clone();
+        this.iterations = iterations;
+        this.seed = seed;
+        this.clock = clock;
+    }
+
+    public long size() {
+        return (long) schedules.size() * maxPerDates.length * cutoffs.length * feedProps.length * feedChances.length * skipChances.length;
+    }
+
+    //The columns and rows of each plane of the grid, whose cells differ only in feedChance and skipChance.
+    public float[] feedChances() {
+        return feedChances.clone();
+    }
+
+    public float[] skipChances() {
+        return skipChances.clone();
+    }
+
+    //Decodes the cell from its index. skipChance varies fastest, then feedChance, feedProp, cutoff, maxPerDate and schedule.
+    public Cell cell(long index) {
+        long rest = index;
+        int skip = (int) (rest % skipChances.length);
+        rest /= skipChances.length;
+        int feed = (int) (rest % feedChances.length);
+        rest /= feedChances.length;
+        int prop = (int) (rest % feedProps.length);
+        rest /= feedProps.length;
+        int cutoff = (int) (rest % cutoffs.length);
+        rest /= cutoffs.length;
+        int max = (int) (rest % maxPerDates.length);
+        rest /= maxPerDates.length;
+        return new Cell(index, (int) rest, maxPerDates[max], cutoffs[cutoff], feedProps[prop], feedChances[feed], skipChances[skip]);
+    }
+
+    //The seed of the cell's random stream.
+    private long cellSeed(long index) {
+        return derivedSeed(seed, index);
+    }
+
+    //A seed for the index'th of many independent random streams under one seed: a 64-bit finalizer (from MurmurHash3) over
+    //the seed and the index.
+    static long derivedSeed(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    //Runs every iteration of the cell, returning {late summary, abandoned summary}.
+    private Summary[] runCell(Cell cell) {
+        SpacedRepetition schedule = schedules.get(cell.schedule());
+        SplittableRandom random = new SplittableRandom(cellSeed(cell.index()));
+        float[] late = new float[iterations];
+        float[] abandoned = new float[iterations];
+        for(int i = 0; i < iterations; i++) {
+            float[] result = MonteCarloSimulation.trial(clock, schedule, cell.maxPerDate(), cell.feedProp(), cell.cutoff(), cell.feedChance(),
+                    cell.skipChance(), random.split());
+            late[i] = result[0];
+            abandoned[i] = result[1];
+        }
+        return new Summary[] {Summary.of(late), Summary.of(abandoned)};
+    }
+
+    public long run(SweepSink sink) throws IOException {
+        return run(sink, ForkJoinPool.commonPool());
+    }
+
+    //Runs the sweep, handing each cell to the sink in index order, until it is done or the sink asks to stop. The sink is not
+    //closed. Returns the number of cells accepted.
+    public long run(SweepSink sink, ForkJoinPool pool) throws IOException {
+        long size = size();
+        int window = Math.max(1, pool.getParallelism() * 4);
+        Summary[][] results = new Summary[window][];
+        for(long first = 0; first < size; first += window) {
+            long start = first;
+            int count = (int) Math.min(window, size - first);
+            Arrays.fill(results, null);
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(i -> {
+                if(sink.stopped()) return;
+                Cell cell = cell(start + i);
+                Summary[] result = runCell(cell);
+                sink.completed(cell, result[0], result[1]);
+                results[i] = result;
+            })).join();
+            for(int i = 0; i < count; i++) {
+                if(results[i] == null) return start + i;
+                sink.accept(cell(start + i), results[i][0], results[i][1]);
+            }
+            if(sink.stopped()) return start + count;
+        }
+        return size;
+    }
+
+    //Parses "value" or "from:to:step" (inclusive, float-accumulated as in MonteCarloSimulation.steps) into values.
+    private static float[] floatRange(String spec) {
+        String[] parts = spec.split(":");
+        if(parts.length == 1) {
+            return new float[] {Float.parseFloat(parts[0])};
+        }
+        return MonteCarloSimulation.steps(Float.parseFloat(parts[0]), Double.parseDouble(parts[1]), Float.parseFloat(parts[2]));
+    }
+
+    //Parses "value" or "from:to:step" (inclusive) into values.
+    private static int[] intRange(String spec) {
+        String[] parts = spec.split(":");
+        if(parts.length == 1) {
+            return new int[] {Integer.parseInt(parts[0])};
+        }
+        int from = Integer.parseInt(parts[0]);
+        int to = Integer.parseInt(parts[1]);
+        int step = Integer.parseInt(parts[2]);
+        return IntStream.iterate(from, v -> v <= to, v -> v + step).toArray();
+    }
+
+    //Runs a sweep. Arguments are key=value pairs; every key is optional and defaults to App's analysis, but out or live is needed:
+    //  out=<file.csv|file.bin|file.png|file.svg> live=false iterations=30 seed=0 maxPerDate=5 cutoff=80 feedProp=0.4 feedChance=0.1:0.8:0.1
+    //  skipChance=0:0.5:0.05 schedule=0,1,2,5,8,14 (schedule may be repeated to sweep several schedules) clock=DAILY|EVENTS
+    //A .png or .svg out is a heatmap rendered with no display and rewritten as the sweep goes; live=true opens a window that
+    //fills in as cells finish and can stop the sweep early.
+    public static void main(String[] args) throws IOException {
+        Path out = null;
+        boolean live = false;
+        int iterations = 30;
+        long seed = 0;
+        SimulationClock clock = SimulationClock.DAILY;
+        int[] maxPerDates = {5};
+        int[] cutoffs = {80};
+        float[] feedProps = {0.4f};
+        float[] feedChances = MonteCarloSimulation.steps(0.1f, 0.8, 0.1f);
+        float[] skipChances = MonteCarloSimulation.steps(0, 0.5, 0.05f);
+        List<SpacedRepetition> schedules = new ArrayList<>();
+        for(String arg : args) {
+            int eq = arg.indexOf('=');
+            if(eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            String value = arg.substring(eq + 1);
+            switch(arg.substring(0, eq)) {
+                case "out" -> out = Path.of(value);
+                case "live" -> live = Boolean.parseBoolean(value);
+                case "iterations" -> iterations = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "clock" -> clock = SimulationClock.valueOf(value.toUpperCase(Locale.ROOT));
+                case "maxPerDate" -> maxPerDates = intRange(value);
+                case "cutoff" -> cutoffs = intRange(value);
+                case "feedProp" -> feedProps = floatRange(value);
+                case "feedChance" -> feedChances = floatRange(value);
+                case "skipChance" -> skipChances = floatRange(value);
+                case "schedule" -> schedules.add(new StaticSpacedRepetition(Arrays.stream(value.split(",")).map(String::trim)
+                        .mapToInt(Integer::parseInt).toArray()));
+                default -> throw new IllegalArgumentException("Unknown key " + arg.substring(0, eq));
+            }
+        }
+        if(out == null && !live) throw new IllegalArgumentException("Missing out=<file.csv|file.bin|file.png|file.svg> or live=true");
+        if(live && GraphicsEnvironment.isHeadless()) throw new IllegalArgumentException("live=true needs a display; use out=<file.png> instead");
+        if(schedules.isEmpty()) {
+            schedules.add(new StaticSpacedRepetition(0, 1, 2, 5, 8, 14));
+        }
+        ParameterSweep sweep = new ParameterSweep(schedules, maxPerDates, cutoffs, feedProps, feedChances, skipChances, iterations, seed, clock);
+        SweepSink file = null;
+        if(out != null) {
+            String name = out.toString();
+            file = name.endsWith(".bin") ? new BinarySweepSink(out)
+                    : name.endsWith(".png") || name.endsWith(".svg") ? new HeatmapSweepSink(sweep, out) : new CsvSweepSink(out);
+        }
+        SweepSink view = live ? LiveSweepView.open(sweep, "Sweep of " + sweep.size() + " cells, " + iterations + " iterations each") : null;
+        try(SweepSink sink = file == null ? view : view == null ? file : SweepSink.both(file, view)) {
+            long cells = sweep.run(sink);
+            if(cells < sweep.size()) {
+                System.out.println("Stopped after " + cells + " of " + sweep.size() + " cells");
+            }
+        }
+    }
+}
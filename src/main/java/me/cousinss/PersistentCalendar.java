@@ -0,0 +1,685 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+//A ReviewCalendar kept in a directory, so that it survives a restart or a crash. Every addWithSpacing, skip and
+//recordReview is appended to a journal together with the abandon decisions it made (by abandonRepair or the abandon
+//policy), and checkpoint() writes the whole calendar out as a snapshot of fixed-width records, then empties the journal.
+//Opening the calendar maps the snapshot back in and replays the journal after it, feeding the recorded decisions back
+//instead of asking abandonRepair again, so the calendar comes back exactly as it was even if abandonRepair is random. A
+//record torn by a crash fails its length or CRC check and is cut off, along with its (unacknowledged) operation. An
+//operation is applied before its record is written; if the write fails, the operation is rolled back, by loading the
+//calendar again from the snapshot and journal, before it throws.
+//Opening and checkpointing map the snapshot and leave the calendar's days in it (see MappedDayStore): a day is only moved
+//onto the heap when it is first written to, and a checkpoint maps the new snapshot and drops them all again. The questions,
+//their bases and a few ints per day stay on the heap, so a process can hold many more learners than if their days were.
+//Only eager calendars can be persisted. Every static schedule used must be one of the given schedules, which must be passed
+//in the same order on every open. An AdaptiveSpacedRepetition is written out with its state instead, and comes back as a
+//new instance: after a reopen, review the questions getForDate returns, which hold the calendar's own schedules. A fork is
+//not persisted: it goes its own way in memory only, and the calendar it was forked from keeps its journal.
+//A calendar is made, then loaded with open, which reads the directory back in: loading replays operations, which may call
+//abandonRepair, so it waits until a subclass has finished constructing.
+//
+//  journal:  header  int JOURNAL_MAGIC, int VERSION, int maxPerDate, int cutoff
+//            record  int payload length, int CRC32 of the payload, then the payload: long sequence, byte type, the
+//                    operation's fields, int decision count, then the decisions as a bit set of (count + 63) / 64 longs
+//            ADD     int question id, int lessonID, int basis, schedule, int text length, text (UTF-8)
+//            SKIP    int day, int fromQuestion
+//            ADD_ALL int basis, schedule, int question count, then per question: int id, int lessonID, int text length,
+//                    text (UTF-8)
+//            REVIEW  int question id, int day, int spaceID, int quality
+//            schedule  int index into the given schedules, or ADAPTIVE then the schedule's state: int offset count, the
+//                    offsets as ints, double ease, int streak, int interval
+//  snapshot: header  int SNAPSHOT_MAGIC, int VERSION, int maxPerDate, int cutoff, long sequence of the last record held,
+//                    int numAdded, int numAbandoned, int question count, int repetition count, int emptied day count,
+//                    int adaptive schedule count, int adaptive schedule length, int text length
+//            question    int id, int lessonID, int basis, int text offset, int text length
+//            repetition  int day, int question id, int spaceID, int schedule; by day, in stored order within the day. A
+//                        schedule past the given schedules is an adaptive one, numbered on from them
+//            emptied     int day, ascending, per day the calendar holds emptied (repair tells a day it held from one it makes)
+//            adaptive    per adaptive schedule, its state as in the journal
+//            text        the questions' text (UTF-8)
+public abstract class PersistentCalendar extends ReviewCalendar implements Closeable {
+
+    public static final int JOURNAL_MAGIC = 0x53524a4c; //"SRJL"
+    public static final int SNAPSHOT_MAGIC = 0x53524353; //"SRCS"
+    public static final int VERSION = 3;
+    private static final String JOURNAL = "calendar.journal";
+    private static final String SNAPSHOT = "calendar.snapshot";
+    private static final int JOURNAL_HEADER = 16;
+    private static final int SNAPSHOT_HEADER = 56;
+    private static final int QUESTION_BYTES = 20;
+    private static final int REPETITION_BYTES = 16;
+    private static final byte ADD = 1;
+    private static final byte SKIP = 2;
+    private static final byte ADD_ALL = 3;
+    private static final byte REVIEW = 4;
+    //Written in place of a schedule index for an adaptive schedule, which is followed by its state.
+    private static final int ADAPTIVE = -1;
+
+    private final Path directory;
+    private final List<SpacedRepetition> schedules;
+    //If true, every record is forced to disk before its operation returns.
+    private final boolean sync;
+    //Null until the calendar is opened, and in a fork.
+    private FileChannel journal;
+    //True in a fork, which applies operations without journaling them.
+    private boolean detached;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer record = ByteBuffer.allocate(256);
+    //The sequence number of the last record written (or held in the snapshot).
+    private long sequence;
+    private int nextQuestionID;
+
+    //The abandon decisions made by the current operation, as a bit set.
+    private long[] decisions = new long[4];
+    private int numDecisions;
+    //While replaying, the recorded decisions to be fed back, or null otherwise.
+    private long[] replay;
+    private int replayCount;
+    private int replayed;
+
+    //A calendar to be kept in the directory, which must be opened before it is used.
+    protected PersistentCalendar(Path directory, int maxPerDate, Date cutoff, CalendarBackend backend,
+                                 List<SpacedRepetition> schedules, boolean sync) {
+        super(maxPerDate, cutoff, backend);
+        this.directory = directory;
+        this.schedules = List.copyOf(schedules);
+        this.sync = sync;
+    }
+
+    //Reads the calendar's directory (if it holds one) into the new calendar, and returns it ready to use.
+    public static <C extends PersistentCalendar> C open(C calendar) throws IOException {
+        ((PersistentCalendar) calendar).load();
+        return calendar;
+    }
+
+    private void load() throws IOException {
+        if(journal != null) throw new IllegalStateException("Calendar is already open");
+        Files.createDirectories(directory);
+        readSnapshot();
+        FileChannel journal = openJournal(directory.resolve(JOURNAL));
+        try {
+            replayJournal(journal);
+        } catch(IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        this.journal = journal;
+    }
+
+    //Opens the journal for reading and appending, creating it if need be; tests override this to make writes fail.
+    FileChannel openJournal(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    //The journal, checked before an operation changes anything.
+    private FileChannel journal() {
+        if(detached) throw new IllegalStateException("A fork is not persisted");
+        if(journal == null || !journal.isOpen()) throw new IllegalStateException("Calendar is not open");
+        return journal;
+    }
+
+    //The lowest question id above every question the calendar has held, for seeding an IdAllocator after a restart.
+    public int nextQuestionID() {
+        return nextQuestionID;
+    }
+
+    private int scheduleIndex(SpacedRepetition spacing) {
+        for(int i = 0; i < schedules.size(); i++) {
+            if(schedules.get(i) == spacing) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Schedule is not one of the calendar's schedules");
+    }
+
+    //The bytes putSchedule writes for the schedule, checking that it can be written.
+    private int scheduleBytes(SpacedRepetition spacing) {
+        if(spacing instanceof AdaptiveSpacedRepetition adaptive) {
+            return 4 + adaptiveBytes(adaptive);
+        }
+        scheduleIndex(spacing);
+        return 4;
+    }
+
+    private void putSchedule(SpacedRepetition spacing) {
+        if(spacing instanceof AdaptiveSpacedRepetition adaptive) {
+            putAdaptive(record.putInt(ADAPTIVE), adaptive);
+        } else {
+            record.putInt(scheduleIndex(spacing));
+        }
+    }
+
+    private SpacedRepetition readSchedule(ByteBuffer in) throws IOException {
+        int index = in.getInt();
+        if(index == ADAPTIVE) {
+            return readAdaptive(in);
+        }
+        if(index < 0 || index >= schedules.size()) throw new IOException(JOURNAL + " names an unknown schedule");
+        return schedules.get(index);
+    }
+
+    private static int adaptiveBytes(AdaptiveSpacedRepetition adaptive) {
+        return 20 + 4 * adaptive.scheduled();
+    }
+
+    private static void putAdaptive(ByteBuffer out, AdaptiveSpacedRepetition adaptive) {
+        out.putInt(adaptive.scheduled());
+        for(int i = 0; i < adaptive.scheduled(); i++) {
+            out.putInt(adaptive.offsetDays(i));
+        }
+        out.putDouble(adaptive.getEase()).putInt(adaptive.getStreak()).putInt(adaptive.getInterval());
+    }
+
+    private static AdaptiveSpacedRepetition readAdaptive(ByteBuffer in) throws IOException {
+        int count = in.getInt();
+        if(count <= 0 || count > in.remaining() / 4) throw new IOException("Adaptive schedule is corrupt");
+        int[] offsets = new int[count];
+        for(int i = 0; i < count; i++) {
+            offsets[i] = in.getInt();
+        }
+        return new AdaptiveSpacedRepetition(offsets, in.getDouble(), in.getInt(), in.getInt());
+    }
+
+    @Override
+    boolean decideAbandon(long repetition, Date date, int daysLate) {
+        if(replay != null) {
+            if(replayed == replayCount) throw new IllegalStateException("Journal holds fewer decisions than replaying needs");
+            int i = replayed++;
+            return (replay[i >>> 6] & (1L << i)) != 0;
+        }
+        boolean abandon = super.decideAbandon(repetition, date, daysLate);
+        if(detached) {
+            return abandon;
+        }
+        if(numDecisions == decisions.length * 64) {
+            decisions = Arrays.copyOf(decisions, decisions.length * 2);
+        }
+        if(abandon) {
+            decisions[numDecisions >>> 6] |= 1L << numDecisions;
+        }
+        numDecisions++;
+        return abandon;
+    }
+
+    private void clearDecisions() {
+        Arrays.fill(decisions, 0, (numDecisions + 63) >>> 6, 0);
+        numDecisions = 0;
+    }
+
+    @Override
+    public void addWithSpacing(Question question, Date dateBasis, SpacedRepetition spacing) {
+        if(detached) {
+            super.addWithSpacing(question, dateBasis, spacing);
+            return;
+        }
+        journal();
+        int scheduleBytes = scheduleBytes(spacing);
+        byte[] text = question.getQuestion().getBytes(StandardCharsets.UTF_8);
+        clearDecisions();
+        super.addWithSpacing(question, dateBasis, spacing);
+        nextQuestionID = Math.max(nextQuestionID, question.getId() + 1);
+        startRecord(ADD, 16 + scheduleBytes + text.length);
+        record.putInt(question.getId()).putInt(question.getLessonID()).putInt(dateBasis.datePoint());
+        putSchedule(spacing);
+        record.putInt(text.length).put(text);
+        appendRecord();
+    }
+
+    @Override
+    public void addAllWithSpacing(Collection<? extends Question> questions, Date dateBasis, SpacedRepetition spacing) {
+        if(detached) {
+            super.addAllWithSpacing(questions, dateBasis, spacing);
+            return;
+        }
+        journal();
+        List<? extends Question> batch = List.copyOf(questions);
+        byte[][] texts = new byte[batch.size()][];
+        int fieldBytes = 8 + scheduleBytes(spacing);
+        for(int i = 0; i < texts.length; i++) {
+            texts[i] = batch.get(i).getQuestion().getBytes(StandardCharsets.UTF_8);
+            fieldBytes += 12 + texts[i].length;
+        }
+        clearDecisions();
+        super.addAllWithSpacing(batch, dateBasis, spacing);
+        startRecord(ADD_ALL, fieldBytes);
+        record.putInt(dateBasis.datePoint());
+        putSchedule(spacing);
+        record.putInt(texts.length);
+        for(int i = 0; i < texts.length; i++) {
+            Question question = batch.get(i);
+            nextQuestionID = Math.max(nextQuestionID, question.getId() + 1);
+            record.putInt(question.getId()).putInt(question.getLessonID()).putInt(texts[i].length).put(texts[i]);
+        }
+        appendRecord();
+    }
+
+    @Override
+    public void skip(Date date, int fromQuestion) {
+        if(detached) {
+            super.skip(date, fromQuestion);
+            return;
+        }
+        journal();
+        clearDecisions();
+        super.skip(date, fromQuestion);
+        startRecord(SKIP, 8);
+        record.putInt(date.datePoint()).putInt(fromQuestion);
+        appendRecord();
+    }
+
+    @Override
+    public void recordReview(SpacedQuestion question, Date date, int quality) {
+        if(detached) {
+            super.recordReview(question, date, quality);
+            return;
+        }
+        journal();
+        clearDecisions();
+        super.recordReview(question, date, quality);
+        startRecord(REVIEW, 16);
+        record.putInt(question.getId()).putInt(date.datePoint()).putInt(question.getSpaceID()).putInt(quality);
+        appendRecord();
+    }
+
+    //Starts a record with room for the operation's fields (of the given size) and the current decisions.
+    private void startRecord(byte type, int fieldBytes) {
+        int capacity = 8 + 8 + 1 + fieldBytes + 4 + ((numDecisions + 63) >>> 6) * 8;
+        if(record.capacity() < capacity) {
+            record = ByteBuffer.allocate(Math.max(capacity, record.capacity() * 2));
+        }
+        record.clear();
+        record.position(8);
+        record.putLong(sequence + 1).put(type);
+    }
+
+    private void appendRecord() {
+        record.putInt(numDecisions);
+        for(int i = 0; i < (numDecisions + 63) >>> 6; i++) {
+            record.putLong(decisions[i]);
+        }
+        int length = record.position() - 8;
+        crc.reset();
+        crc.update(record.array(), 8, length);
+        record.putInt(0, length).putInt(4, (int) crc.getValue());
+        record.flip();
+        long start = -1;
+        try {
+            FileChannel journal = journal();
+            start = journal.position();
+            while(record.hasRemaining()) {
+                journal.write(record);
+            }
+            if(sync) {
+                journal.force(false);
+            }
+        } catch(IOException e) {
+            rollBack(start, e);
+            throw new UncheckedIOException(e);
+        }
+        sequence++;
+    }
+
+    //Undoes an operation whose record could not be written: cuts off whatever part of the record reached the journal, then
+    //loads the calendar back in from the snapshot and the journal, which hold every operation before it. The abandon policy's
+    //random stream is not rolled back. If the calendar cannot be loaded again either, it is closed, and has to be opened
+    //anew.
+    private void rollBack(long recordStart, IOException cause) {
+        try {
+            if(recordStart >= 0) {
+                journal.truncate(recordStart);
+            }
+            clear();
+            sequence = 0;
+            nextQuestionID = 0;
+            readSnapshot();
+            replayJournal(journal);
+        } catch(IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+            try {
+                journal.close();
+            } catch(IOException closing) {
+                cause.addSuppressed(closing);
+            }
+        }
+    }
+
+    private void checkHeader(ByteBuffer in, int magic, String file) throws IOException {
+        if(in.getInt() != magic || in.getInt() != VERSION) throw new IOException(file + " is not a version " + VERSION + " calendar file");
+        if(in.getInt() != getMaxPerDate() || in.getInt() != getCutoff().datePoint()) {
+            throw new IOException(file + " was written with a different maxPerDate or cutoff");
+        }
+    }
+
+    private void readSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT);
+        if(!Files.exists(path)) {
+            return;
+        }
+        try(FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            checkHeader(map, SNAPSHOT_MAGIC, SNAPSHOT);
+            sequence = map.getLong();
+            int numAdded = map.getInt();
+            int numAbandoned = map.getInt();
+            int numQuestions = map.getInt();
+            int numRepetitions = map.getInt();
+            int numEmptied = map.getInt();
+            int numAdaptive = map.getInt();
+            int adaptiveLength = map.getInt();
+            int textLength = map.getInt();
+            int repetitionStart = SNAPSHOT_HEADER + numQuestions * QUESTION_BYTES;
+            int emptiedStart = repetitionStart + numRepetitions * REPETITION_BYTES;
+            int adaptiveStart = emptiedStart + numEmptied * 4;
+            int text = adaptiveStart + adaptiveLength;
+            if(text + (long) textLength != map.capacity()) throw new IOException(SNAPSHOT + " is corrupt");
+            ByteBuffer adaptiveIn = map.slice(adaptiveStart, adaptiveLength);
+            SpacedRepetition[] adaptive = new SpacedRepetition[numAdaptive];
+            for(int i = 0; i < numAdaptive; i++) {
+                adaptive[i] = readAdaptive(adaptiveIn);
+            }
+            if(adaptiveIn.hasRemaining()) throw new IOException(SNAPSHOT + " is corrupt");
+            Map<Integer, Question> questions = new HashMap<>();
+            for(int i = 0; i < numQuestions; i++) {
+                int id = map.getInt();
+                int lessonID = map.getInt();
+                int basis = map.getInt();
+                byte[] bytes = new byte[map.getInt(map.position() + 4)];
+                map.get(text + map.getInt(), bytes);
+                map.position(map.position() + 4);
+                Question question = new Question(new String(bytes, StandardCharsets.UTF_8), lessonID, id);
+                questions.put(id, question);
+                restoreBasis(question, new Date(basis));
+                nextQuestionID = Math.max(nextQuestionID, id + 1);
+            }
+            //The days are left in the mapping, so every record is checked here, before any of them is read.
+            int day = Integer.MIN_VALUE;
+            for(int i = 0; i < numRepetitions; i++) {
+                int previous = day;
+                day = map.getInt();
+                Question question = questions.get(map.getInt());
+                int spaceID = map.getInt();
+                int schedule = map.getInt();
+                if(day < previous || question == null || spaceID < 0 || spaceID > QuestionTable.MAX_SPACE_ID || schedule < 0
+                        || schedule >= schedules.size() + numAdaptive) {
+                    throw new IOException(SNAPSHOT + " is corrupt");
+                }
+            }
+            int[] emptied = new int[numEmptied];
+            for(int i = 0; i < numEmptied; i++) {
+                emptied[i] = map.getInt();
+                if(i > 0 && emptied[i] <= emptied[i - 1]) throw new IOException(SNAPSHOT + " is corrupt");
+            }
+            SpacedRepetition[] all = schedules.toArray(new SpacedRepetition[schedules.size() + numAdaptive]);
+            System.arraycopy(adaptive, 0, all, schedules.size(), numAdaptive);
+            mapDays(map.slice(repetitionStart, numRepetitions * REPETITION_BYTES), emptied, all);
+            forEachDay(d -> restoreCount(d, countPlaced(d)));
+            restoreCounts(numAdded, numAbandoned);
+        }
+    }
+
+    //Replays every record after the snapshot, then cuts the journal off after the last whole record.
+    private void replayJournal(FileChannel journal) throws IOException {
+        long size = journal.size();
+        if(size < JOURNAL_HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER).putInt(JOURNAL_MAGIC).putInt(VERSION).putInt(getMaxPerDate())
+                    .putInt(getCutoff().datePoint()).flip();
+            journal.truncate(0);
+            journal.write(header, 0);
+            journal.force(true);
+            journal.position(JOURNAL_HEADER);
+            return;
+        }
+        MappedByteBuffer in = journal.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        checkHeader(in, JOURNAL_MAGIC, JOURNAL);
+        long end = JOURNAL_HEADER;
+        while(in.remaining() >= 8) {
+            int length = in.getInt();
+            int checksum = in.getInt();
+            if(length <= 0 || length > in.remaining()) {
+                break;
+            }
+            ByteBuffer payload = in.slice(in.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if((int) crc.getValue() != checksum) {
+                break;
+            }
+            replayRecord(payload);
+            in.position(in.position() + length);
+            end = in.position();
+        }
+        if(end < size) {
+            journal.truncate(end);
+            journal.force(true);
+        }
+        journal.position(end);
+    }
+
+    private void replayRecord(ByteBuffer payload) throws IOException {
+        long recordSequence = payload.getLong();
+        if(recordSequence <= sequence) {
+            //Already held in the snapshot: the journal was not emptied after the last checkpoint.
+            return;
+        }
+        byte type = payload.get();
+        int day;
+        SpacedRepetition spacing = null;
+        int fromQuestion = 0;
+        int questionID = 0;
+        int spaceID = 0;
+        int quality = 0;
+        List<Question> questions = new ArrayList<>();
+        if(type == ADD) {
+            int id = payload.getInt();
+            int lessonID = payload.getInt();
+            day = payload.getInt();
+            spacing = readSchedule(payload);
+            questions.add(new Question(readText(payload), lessonID, id));
+        } else if(type == ADD_ALL) {
+            day = payload.getInt();
+            spacing = readSchedule(payload);
+            int count = payload.getInt();
+            for(int i = 0; i < count; i++) {
+                int id = payload.getInt();
+                int lessonID = payload.getInt();
+                questions.add(new Question(readText(payload), lessonID, id));
+            }
+        } else if(type == SKIP) {
+            day = payload.getInt();
+            fromQuestion = payload.getInt();
+        } else if(type == REVIEW) {
+            questionID = payload.getInt();
+            day = payload.getInt();
+            spaceID = payload.getInt();
+            quality = payload.getInt();
+        } else {
+            throw new IOException(JOURNAL + " holds an unknown record type " + type);
+        }
+        replayCount = payload.getInt();
+        replay = new long[(replayCount + 63) >>> 6];
+        payload.asLongBuffer().get(replay);
+        replayed = 0;
+        try {
+            if(type == ADD) {
+                super.addWithSpacing(questions.get(0), new Date(day), spacing);
+            } else if(type == ADD_ALL) {
+                super.addAllWithSpacing(questions, new Date(day), spacing);
+            } else if(type == SKIP) {
+                super.skip(new Date(day), fromQuestion);
+            } else {
+                super.recordReview(reviewed(questionID, day, spaceID), new Date(day), quality);
+            }
+            if(replayed != replayCount) throw new IOException(JOURNAL + " holds more decisions than replaying needs");
+        } catch(IllegalStateException | IllegalArgumentException | NoSuchElementException e) {
+            throw new IOException(JOURNAL + " does not match the snapshot", e);
+        } finally {
+            replay = null;
+        }
+        for(Question question : questions) {
+            nextQuestionID = Math.max(nextQuestionID, question.getId() + 1);
+        }
+        sequence = recordSequence;
+    }
+
+    //The repetition a replayed review was of, as the calendar holds it.
+    private SpacedQuestion reviewed(int questionID, int day, int spaceID) throws IOException {
+        for(SpacedQuestion question : getForDate(new Date(day))) {
+            if(question.getId() == questionID && question.getSpaceID() == spaceID) {
+                return question;
+            }
+        }
+        throw new IOException(JOURNAL + " reviews a question the calendar does not hold");
+    }
+
+    private static String readText(ByteBuffer payload) {
+        byte[] text = new byte[payload.getInt()];
+        payload.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    //Writes the calendar out to a new snapshot, replaces the old one, and empties the journal. A crash part way through leaves
+    //either the old snapshot and the whole journal, or the new snapshot and a journal whose records it already holds.
+    public void checkpoint() throws IOException {
+        FileChannel journal = journal();
+        List<Question> questions = new ArrayList<>();
+        List<Date> bases = new ArrayList<>();
+        forEachBasis((question, basis) -> {
+            questions.add(question);
+            bases.add(basis);
+        });
+        byte[][] texts = new byte[questions.size()][];
+        long textLength = 0;
+        for(int i = 0; i < texts.length; i++) {
+            texts[i] = questions.get(i).getQuestion().getBytes(StandardCharsets.UTF_8);
+            textLength += texts[i].length;
+        }
+        List<Integer> days = new ArrayList<>();
+        forEachDay(days::add);
+        days.sort(null);
+        long numRepetitions = 0;
+        int numEmptied = 0;
+        //Adaptive schedules are numbered on from the given schedules, in the order they are first seen.
+        Map<SpacedRepetition, Integer> adaptiveIndex = new IdentityHashMap<>();
+        List<AdaptiveSpacedRepetition> adaptive = new ArrayList<>();
+        long[] adaptiveLength = {0};
+        for(int day : days) {
+            numRepetitions += countPlaced(day);
+            if(countPlaced(day) == 0) {
+                numEmptied++;
+            }
+            forEachStored(day, (question, spaceID, repetition) -> {
+                if(repetition instanceof AdaptiveSpacedRepetition a && !adaptiveIndex.containsKey(a)) {
+                    adaptiveIndex.put(a, schedules.size() + adaptive.size());
+                    adaptive.add(a);
+                    adaptiveLength[0] += adaptiveBytes(a);
+                }
+            });
+        }
+        long size = SNAPSHOT_HEADER + (long) questions.size() * QUESTION_BYTES + numRepetitions * REPETITION_BYTES
+                + numEmptied * 4L + adaptiveLength[0] + textLength;
+        if(size > Integer.MAX_VALUE) throw new IOException("Calendar is too large for a single snapshot");
+        Path temporary = directory.resolve(SNAPSHOT + ".tmp");
+        MappedByteBuffer map;
+        try(FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            map = out.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putInt(getMaxPerDate()).putInt(getCutoff().datePoint()).putLong(sequence)
+                    .putInt(getNumAdded()).putInt(getNumAbandoned()).putInt(questions.size()).putInt((int) numRepetitions)
+                    .putInt(numEmptied).putInt(adaptive.size()).putInt((int) adaptiveLength[0]).putInt((int) textLength);
+            int textOffset = 0;
+            for(int i = 0; i < texts.length; i++) {
+                Question question = questions.get(i);
+                map.putInt(question.getId()).putInt(question.getLessonID()).putInt(bases.get(i).datePoint()).putInt(textOffset)
+                        .putInt(texts[i].length);
+                textOffset += texts[i].length;
+            }
+            for(int day : days) {
+                forEachStored(day, (question, spaceID, repetition) -> map.putInt(day).putInt(question.getId()).putInt(spaceID)
+                        .putInt(repetition instanceof AdaptiveSpacedRepetition ? adaptiveIndex.get(repetition) : scheduleIndex(repetition)));
+            }
+            for(int day : days) {
+                if(countPlaced(day) == 0) {
+                    map.putInt(day);
+                }
+            }
+            for(AdaptiveSpacedRepetition a : adaptive) {
+                putAdaptive(map, a);
+            }
+            for(byte[] text : texts) {
+                map.put(text);
+            }
+            map.force();
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        //Make the rename itself durable before the journal it replaces is emptied.
+        try(FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch(IOException ignored) {
+            //Not every platform can open a directory; the rename is still atomic.
+        }
+        //The new snapshot holds every day, so they are all left in it again rather than kept on the heap.
+        int[] emptied = new int[numEmptied];
+        int e = 0;
+        for(int day : days) {
+            if(countPlaced(day) == 0) {
+                emptied[e++] = day;
+            }
+        }
+        SpacedRepetition[] all = schedules.toArray(new SpacedRepetition[schedules.size() + adaptive.size()]);
+        for(int i = 0; i < adaptive.size(); i++) {
+            all[schedules.size() + i] = adaptive.get(i);
+        }
+        mapDays(map.slice(SNAPSHOT_HEADER + questions.size() * QUESTION_BYTES, (int) numRepetitions * REPETITION_BYTES)
+                .asReadOnlyBuffer(), emptied, all);
+        journal.truncate(JOURNAL_HEADER);
+        journal.force(true);
+        journal.position(JOURNAL_HEADER);
+    }
+
+    //A fork goes its own way in memory only: it has no directory of its own, so it journals nothing and cannot be
+    //checkpointed or rolled back, and closing it leaves this calendar's journal open.
+    @Override
+    public PersistentCalendar fork() {
+        PersistentCalendar fork = (PersistentCalendar) super.fork();
+        fork.journal = null;
+        fork.detached = true;
+        //The record and decision buffers are never touched by a fork, but are not to be shared either.
+        fork.record = null;
+        fork.decisions = null;
+        return fork;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(journal != null) {
+            journal.close();
+        }
+    }
+}
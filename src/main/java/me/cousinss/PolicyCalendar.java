@@ -0,0 +1,37 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.SplittableRandom;
+
+//A ReviewCalendar whose abandon decisions come from an AbandonPolicy alone, for when there is nothing to subclass for.
+public class PolicyCalendar extends ReviewCalendar {
+
+    public PolicyCalendar(int maxPerDate, Date cutoff, AbandonTable policy, SplittableRandom random) {
+        this(maxPerDate, cutoff, CalendarBackend.HASHED, policy, random);
+    }
+
+    public PolicyCalendar(int maxPerDate, Date cutoff, CalendarBackend backend, AbandonTable policy, SplittableRandom random) {
+        super(maxPerDate, cutoff, backend, checkedPolicy(policy), random);
+    }
+
+    private static AbandonTable checkedPolicy(AbandonTable policy) {
+        if(policy == null) throw new IllegalArgumentException();
+        return policy;
+    }
+
+    @Override
+    public PolicyCalendar fork() {
+        return (PolicyCalendar) super.fork();
+    }
+
+    //Only asked if the policy has been taken away, and then never abandons.
+    @Override
+    public boolean abandonRepair(SpacedQuestion question, Date date, int daysLate) {
+        return false;
+    }
+}
@@ -8,8 +8,6 @@ package me.cousinss;
 
 public class Question {
 
-    private static int nextID = 0;
-
     private final String question;
     private final int id;
     private final int lessonID;
@@ -21,7 +19,11 @@ public class Question {
     }
 
     public Question(String question, int lessonID) {
-        this(question, lessonID, nextID++);
+        this(question, lessonID, IdAllocator.global());
+    }
+
+    public Question(String question, int lessonID, IdAllocator ids) {
+        this(question, lessonID, ids.next());
     }
 
     public String getQuestion() {
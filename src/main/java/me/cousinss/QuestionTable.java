@@ -0,0 +1,226 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+//The questions and schedules of one calendar, each numbered in the order first seen, so that a repetition can be held as a
+//single long rather than a SpacedQuestion: the spaceID, the schedule's number and the question's number, packed as
+//  bits 62-48 spaceID (15 bits), bits 47-24 schedule (24 bits), bits 23-0 question (24 bits)
+//which is never negative, so NONE can stand for no repetition. SpacedQuestion objects are only made from a packed
+//repetition where one is handed out of the calendar. The table also holds each question's basis.
+//The packed long is 8 bytes where a SpacedQuestion was about 36, but a calendar's retained heap (not counting the Questions
+//themselves) only fell from about 90 (HASHED) and 62 (ARRAY) bytes per repetition, well short of a tenfold cut. Measured with
+//200,000 questions on a 6-step schedule and no day over-full, it is about 34 bytes for either engine with some 600 repetitions
+//a day: 8 packed, 6 of array slack (arrays double as they grow), 14 for each day's index from question to spaceID (see
+//DayBucket, which builds one for any day past 32 repetitions, over-full or not; it took 41 as a LongIntMap) and 7 for this
+//table's per-question entries. With some 30 a day no day is indexed, and it is about 19 (HASHED) and 17 (ARRAY): 8 packed, 1
+//of slack, 1 for the bucket objects, 2 (HASHED) for the map of days and 7 for this table. The packed long alone is more than
+//a few bytes, so getting there would take a narrower repetition (such as an int per day, with the schedule kept once per
+//question), which the calendar does not have.
+//A table can be forked in O(1) (see ReviewCalendar.fork): the two share their arrays and maps until either writes, when that
+//one copies them all first.
+final class QuestionTable {
+
+    static final long NONE = -1;
+    static final int MAX_SPACE_ID = (1 << 15) - 1;
+    static final int MAX_INDEX = (1 << 24) - 1;
+
+    private static final int NO_BASIS = Integer.MIN_VALUE;
+    //The number of schedules looked up by scanning before falling back to scheduleIndex.
+    private static final int SCANNED_SCHEDULES = 8;
+
+    static long pack(int spaceID, int schedule, int question) {
+        if(spaceID < 0 || spaceID > MAX_SPACE_ID) throw new IllegalArgumentException("spaceID " + spaceID + " out of range");
+        return (long) spaceID << 48 | (long) schedule << 24 | question;
+    }
+
+    static int spaceID(long repetition) {
+        return (int) (repetition >>> 48);
+    }
+
+    static int schedule(long repetition) {
+        return (int) (repetition >>> 24) & MAX_INDEX;
+    }
+
+    static int question(long repetition) {
+        return (int) repetition & MAX_INDEX;
+    }
+
+    //Maps Question.getId() to its number.
+    private LongIntMap questionIndex = new LongIntMap();
+    private Question[] questions = new Question[16];
+    private int[] bases = new int[16];
+    private int numQuestions;
+    private SpacedRepetition[] schedules = new SpacedRepetition[2];
+    private int numSchedules;
+    //Maps the schedules past the scanned ones to their number.
+    private Map<SpacedRepetition, Integer> scheduleIndex = new IdentityHashMap<>();
+    //Set while the arrays and maps are shared with a fork. The schedules numbered before the last fork are shared as well,
+    //so an AdaptiveSpacedRepetition among them is copied before its state changes, unless this table already has.
+    private boolean shared;
+    private int sharedSchedules;
+    private BitSet ownedSchedules = new BitSet();
+
+    QuestionTable fork() {
+        QuestionTable fork = new QuestionTable();
+        fork.questionIndex = questionIndex;
+        fork.questions = questions;
+        fork.bases = bases;
+        fork.numQuestions = numQuestions;
+        fork.schedules = schedules;
+        fork.numSchedules = numSchedules;
+        fork.scheduleIndex = scheduleIndex;
+        fork.shared = shared = true;
+        fork.sharedSchedules = sharedSchedules = numSchedules;
+        ownedSchedules = new BitSet();
+        return fork;
+    }
+
+    //Copies the arrays and maps away from any fork, ahead of a write.
+    private void own() {
+        if(shared) {
+            questionIndex = questionIndex.copy();
+            questions = questions.clone();
+            bases = bases.clone();
+            schedules = schedules.clone();
+            scheduleIndex = new IdentityHashMap<>(scheduleIndex);
+            shared = false;
+        }
+    }
+
+    //The number of the question, numbering it if it is new.
+    int index(Question question) {
+        int index = questionIndex.get(question.getId(), -1);
+        if(index < 0) {
+            if(numQuestions > MAX_INDEX) throw new IllegalStateException("A calendar holds at most " + (MAX_INDEX + 1) + " questions");
+            own();
+            if(numQuestions == questions.length) {
+                questions = Arrays.copyOf(questions, numQuestions * 2);
+                bases = Arrays.copyOf(bases, numQuestions * 2);
+            }
+            index = numQuestions++;
+            questions[index] = question;
+            bases[index] = NO_BASIS;
+            questionIndex.put(question.getId(), index);
+        }
+        return index;
+    }
+
+    //The number of the question with the id, or -1 if it has never been seen.
+    int indexOf(int questionId) {
+        return questionIndex.get(questionId, -1);
+    }
+
+    //The number of the schedule, numbering it if it is new.
+    int index(SpacedRepetition schedule) {
+        //Calendars usually hold a handful of schedules, so a scan beats hashing. Adaptive schedules are one per question,
+        //so any past the first few are hashed instead.
+        int scanned = Math.min(numSchedules, SCANNED_SCHEDULES);
+        for(int i = 0; i < scanned; i++) {
+            if(schedules[i] == schedule) {
+                return i;
+            }
+        }
+        if(numSchedules > SCANNED_SCHEDULES) {
+            Integer index = scheduleIndex.get(schedule);
+            if(index != null) {
+                return index;
+            }
+        }
+        if(numSchedules > MAX_INDEX) throw new IllegalStateException("A calendar holds at most " + (MAX_INDEX + 1) + " schedules");
+        own();
+        if(numSchedules == schedules.length) {
+            schedules = Arrays.copyOf(schedules, numSchedules * 2);
+        }
+        schedules[numSchedules] = schedule;
+        if(numSchedules >= SCANNED_SCHEDULES) {
+            scheduleIndex.put(schedule, numSchedules);
+        }
+        return numSchedules++;
+    }
+
+    Question question(int index) {
+        return questions[index];
+    }
+
+    SpacedRepetition schedule(int index) {
+        return schedules[index];
+    }
+
+    //The schedule, for changing its state: an AdaptiveSpacedRepetition that may be shared with a fork is first replaced by
+    //a copy, under the same number.
+    SpacedRepetition ownSchedule(int index) {
+        SpacedRepetition schedule = schedules[index];
+        if(index >= sharedSchedules || ownedSchedules.get(index) || !(schedule instanceof AdaptiveSpacedRepetition adaptive)) {
+            return schedule;
+        }
+        own();
+        AdaptiveSpacedRepetition copy = adaptive.copy();
+        schedules[index] = copy;
+        if(scheduleIndex.remove(schedule) != null) {
+            scheduleIndex.put(copy, index);
+        }
+        ownedSchedules.set(index);
+        return copy;
+    }
+
+    //The id of the repetition's question, the tie-break of a day's ask order.
+    int questionId(long repetition) {
+        return questions[question(repetition)].getId();
+    }
+
+    //Orders repetitions as they are asked: by spaceID, then by question id.
+    int compare(long a, long b) {
+        int cmp = Integer.compare(spaceID(a), spaceID(b));
+        return cmp != 0 ? cmp : Integer.compare(questionId(a), questionId(b));
+    }
+
+    //The same as compare(repetition, a repetition with the spaceID and question id).
+    int compare(long repetition, int spaceID, int questionId) {
+        int cmp = Integer.compare(spaceID(repetition), spaceID);
+        return cmp != 0 ? cmp : Integer.compare(questionId(repetition), questionId);
+    }
+
+    SpacedQuestion spaced(long repetition) {
+        return new SpacedQuestion(questions[question(repetition)], spaceID(repetition), schedules[schedule(repetition)]);
+    }
+
+    void visit(long repetition, ReviewVisitor visitor) {
+        visitor.visit(questions[question(repetition)], spaceID(repetition), schedules[schedule(repetition)]);
+    }
+
+    void putBasis(int question, int basis) {
+        if(bases[question] == basis) {
+            return;
+        }
+        own();
+        bases[question] = basis;
+    }
+
+    //The question's first-ask day, or NO_BASIS if it has none.
+    int basis(int question) {
+        return bases[question];
+    }
+
+    boolean hasBasis(int question) {
+        return bases[question] != NO_BASIS;
+    }
+
+    //Visits every question that has been given a basis, with its basis, in the order they were numbered.
+    void forEachBasis(BiConsumer<Question, Date> action) {
+        for(int i = 0; i < numQuestions; i++) {
+            if(bases[i] != NO_BASIS) {
+                action.accept(questions[i], new Date(bases[i]));
+            }
+        }
+    }
+}
@@ -6,53 +6,185 @@
 
 package me.cousinss;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableSet;
 import java.util.NoSuchElementException;
 import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
-public abstract class ReviewCalendar  {
+public abstract class ReviewCalendar implements Cloneable {
 
-    private static class QuestionComparator implements Comparator<SpacedQuestion> {
-        @Override
-        public int compare(SpacedQuestion q1, SpacedQuestion q2) {
-            return -(q1.getSpaceID() - q2.getSpaceID());
+    //The not-yet-placed repetitions of a question in a lazy calendar: the next one is spaceID, due on day. question and schedule
+    //are the numbers of the question and of its spacing in the calendar's QuestionTable.
+    private static final class Pending {
+        private final int question;
+        private final int schedule;
+        private final SpacedRepetition spacing;
+        private final int basis;
+        private int spaceID;
+        private int day;
+
+        private Pending(int question, int schedule, SpacedRepetition spacing, int basis, int spaceID) {
+            this.question = question;
+            this.schedule = schedule;
+            this.spacing = spacing;
+            this.basis = basis;
+            this.spaceID = spaceID;
+            this.day = basis + spacing.offsetDays(spaceID);
         }
-    }
 
-    static int daysLate(SpacedQuestion q, Map<Question, Date> bases, Date date) {
-        Date shouldBe = bases.get(q).add(q.getRepetition().getDateVector(q.getSpaceID()));
-        return date.datePoint() - shouldBe.datePoint();
+        private Pending copy() {
+            return new Pending(question, schedule, spacing, basis, spaceID);
+        }
+
+        //Moves on to the next repetition, returning false if there is none before the cutoff.
+        private boolean advance(int end) {
+            int offset = spacing.offsetDays(++spaceID);
+            day = basis + offset;
+            return offset != SpacedRepetition.NONE && day < end;
+        }
     }
 
-    private static final Date UNIT_DATE_VECTOR = new Date(1);
+    static int daysLate(int spaceID, SpacedRepetition repetition, Date basis, Date date) {
+        return date.datePoint() - (basis.datePoint() + repetition.offsetDays(spaceID));
+    }
 
-    private final Map<Date, PriorityQueue<SpacedQuestion>> calendar;
-    private final Map<Question, Date> basisIndex;
+    //Every question and schedule the calendar has held, and their bases. Repetitions are held everywhere else as longs packed
+    //by the table, and only made into SpacedQuestion objects where they are handed out. The table, the store and the counts
+    //are replaced by their forks in a fork of the calendar, so are not final.
+    private QuestionTable table = new QuestionTable();
+    //Each day of the store knows the spaceID of every question on it, so duplicates are caught on insert.
+    private DayStore calendar;
+    //The number of questions on each day, kept alongside the store for range queries. Every write to the store goes through
+    //this class, which keeps the two in step.
+    private DayCounts counts = new DayCounts();
+    //The dates that have been over-filled since the last repair. During a repair, only those that were in the store when it
+    //began are added, for it to reach in date order; see repair.
+    private NavigableSet<Integer> dirty;
+    //During a repair, the dates repetitions have been pushed on to (in the order they were pushed) and, of those, the dates
+    //that were not in the store when it began.
+    private int[] pushed = new int[16];
+    private int numPushed;
+    private LongIntMap madeInRepair;
+    //Set during a repair to the date it has walked up to, or to Integer.MAX_VALUE once it has walked every dirty date.
+    private int walked = Integer.MIN_VALUE;
+    private boolean repairing;
     private final Date cutoff;
     private final int maxPerDate;
+    private final CalendarBackend backend;
+    private final DayOrder order;
     private int numAdded;
     private int numAbandoned;
+    //Lazy calendars only place a repetition into its day once that day is read, skipped or reviewed; until then it waits
+    //here, one entry per question, ordered by the day it is due.
+    private final boolean lazy;
+    private PriorityQueue<Pending> pending;
+    //Every repetition due on or before this day has been placed.
+    private int materialized = Integer.MIN_VALUE;
+    //Set by setAbandonPolicy, when the table decides in place of abandonRepair, drawing from policyRandom. lessonAbandons
+    //counts the abandons per lesson, only when the table has a lesson quota.
+    private AbandonTable policy;
+    private SplittableRandom policyRandom;
+    private LongIntMap lessonAbandons;
+    //Null unless metrics have been attached; every recording site checks, so a calendar without them pays one branch.
+    private CalendarMetrics metrics;
 
     public ReviewCalendar(int maxPerDate, Date cutoff) {
-        calendar = new HashMap<>();
+        this(maxPerDate, cutoff, CalendarBackend.HASHED);
+    }
+
+    public ReviewCalendar(int maxPerDate, Date cutoff, CalendarBackend backend) {
+        this(maxPerDate, cutoff, backend, false);
+    }
+
+    //A calendar whose abandon decisions come from the policy from the start (see setAbandonPolicy).
+    ReviewCalendar(int maxPerDate, Date cutoff, CalendarBackend backend, AbandonTable policy, SplittableRandom random) {
+        this(maxPerDate, cutoff, backend);
+        applyAbandonPolicy(policy, random);
+    }
+
+    //A lazy calendar keeps its days SORTED (see DayOrder), and gives the same days as an eager one kept in that order,
+    //provided every schedule's offsets are non-decreasing, abandonRepair depends only on its arguments, and either it never
+    //abandons or no repetition is ever pushed off a day for being a duplicate. Then which repetitions a day keeps does not
+    //depend on the order they arrive in, and each one that leaves a day meets the same decision there. A duplicate is never
+    //abandoned, though, so when one is pushed off a day it matters whether it got there before the day was repaired, and an
+    //eager calendar repairs its later days as soon as a question is added. Repetitions are only counted as added once placed.
+    //An eager calendar keeps its days in the HEAP order.
+    public ReviewCalendar(int maxPerDate, Date cutoff, CalendarBackend backend, boolean lazy) {
+        this(maxPerDate, cutoff, backend, lazy ? DayOrder.SORTED : DayOrder.HEAP, lazy);
+    }
+
+    //An eager calendar may keep its days in either order; a lazy one must keep them SORTED.
+    public ReviewCalendar(int maxPerDate, Date cutoff, CalendarBackend backend, DayOrder order, boolean lazy) {
+        if(lazy && order != DayOrder.SORTED) throw new IllegalArgumentException("A lazy calendar keeps its days SORTED");
+        this.backend = backend;
+        this.order = order;
+        calendar = backend.newStore(table, order);
         this.maxPerDate = maxPerDate;
         this.cutoff = cutoff;
-        this.basisIndex = new HashMap<>();
+        this.dirty = new TreeSet<>();
+        this.lazy = lazy;
+        this.pending = lazy ? new PriorityQueue<>((a, b) -> Integer.compare(a.day, b.day)) : null;
+    }
+
+    private long pollLast(int day) {
+        long repetition = calendar.pollLast(day);
+        counts.add(day, -1);
+        return repetition;
+    }
+
+    private int daysLate(long repetition, int day) {
+        SpacedRepetition schedule = table.schedule(QuestionTable.schedule(repetition));
+        return day - (table.basis(QuestionTable.question(repetition)) + schedule.offsetDays(QuestionTable.spaceID(repetition)));
+    }
+
+    private void delayLast(int day, int toDay) {
+        addToMap(toDay, pollLast(day));
     }
 
-    private void delayFirst(PriorityQueue<SpacedQuestion> pq, Date toDate) {
-        addToMap(toDate, pq.remove());
+    //Attaches the metrics to record this calendar's scheduling into, which may be shared with other calendars, or detaches
+    //them if null.
+    public void setMetrics(CalendarMetrics metrics) {
+        this.metrics = metrics;
     }
 
-    private void delay(PriorityQueue<SpacedQuestion> pq, SpacedQuestion question, Date toDate) {
-        pq.remove(question);
-        addToMap(toDate, question);
+    public CalendarMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void count(CalendarMetrics.Counter counter) {
+        if(metrics != null) {
+            metrics.increment(counter);
+        }
+    }
+
+    //The start time of an operation, read only when metrics are attached.
+    private long startTimer() {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    private void stopTimer(CalendarMetrics.Distribution distribution, long start) {
+        if(metrics != null) {
+            metrics.record(distribution, System.nanoTime() - start);
+        }
+    }
+
+    //Records the number of questions on each day that holds any into the histogram, without placing a lazy calendar's
+    //pending repetitions.
+    public void recordQueueDepths(Histogram into) {
+        calendar.forEachDay(day -> {
+            int size = calendar.size(day);
+            if(size > 0) {
+                into.record(size);
+            }
+        });
     }
 
     protected int getNumAdded() {
@@ -66,107 +198,518 @@ public abstract class ReviewCalendar  {
     //Returns true if we should abandon the given question, rather than repairing its position (to a later date).
     public abstract boolean abandonRepair(SpacedQuestion question, Date date, int daysLate);
 
+    //Makes the compiled policy decide what to abandon, in place of abandonRepair, drawing from the random stream where it is
+    //uncertain; or, if policy is null, hands the decisions back to abandonRepair. The policy may be changed at any time, and
+    //changing it starts its lesson quotas afresh.
+    public void setAbandonPolicy(AbandonTable policy, SplittableRandom random) {
+        applyAbandonPolicy(policy, random);
+    }
+
+    //setAbandonPolicy's work, which constructors call directly rather than through the overridable method.
+    private void applyAbandonPolicy(AbandonTable policy, SplittableRandom random) {
+        if(policy != null && random == null) throw new IllegalArgumentException();
+        this.policy = policy;
+        this.policyRandom = policy == null ? null : random;
+        this.lessonAbandons = policy == null || policy.lessonQuota() == Integer.MAX_VALUE ? null : new LongIntMap();
+    }
+
+    public AbandonTable getAbandonPolicy() {
+        return policy;
+    }
+
+    //Every abandon decision goes through here, so that a subclass can record or replay the decisions (see PersistentCalendar).
+    //Only abandonRepair needs the repetition as a SpacedQuestion.
+    boolean decideAbandon(long repetition, Date date, int daysLate) {
+        if(policy == null) {
+            return abandonRepair(table.spaced(repetition), date, daysLate);
+        }
+        if(!policy.abandon(daysLate, QuestionTable.spaceID(repetition), policyRandom)) {
+            return false;
+        }
+        if(lessonAbandons != null) {
+            int lessonID = table.question(QuestionTable.question(repetition)).getLessonID();
+            int abandoned = lessonAbandons.get(lessonID, 0);
+            if(abandoned >= policy.lessonQuota()) {
+                count(CalendarMetrics.Counter.ABANDON_REFUSED_BY_QUOTA);
+                return false;
+            }
+            lessonAbandons.put(lessonID, abandoned + 1);
+        }
+        return true;
+    }
+
+    //Visits every day the calendar has a bucket for (emptied or not) and every question with a basis, for writing the calendar
+    //out. Unlike the public reads, these never place a lazy calendar's pending repetitions.
+    void forEachDay(IntConsumer action) {
+        calendar.forEachDay(action);
+    }
+
+    void forEachPlaced(int day, ReviewVisitor visitor) {
+        calendar.forEach(day, visitor);
+    }
+
+    //Visits the day's repetitions in the order restore must be given them to rebuild the day exactly.
+    void forEachStored(int day, ReviewVisitor visitor) {
+        calendar.forEachStored(day, visitor);
+    }
+
+    int countPlaced(int day) {
+        return calendar.size(day);
+    }
+
+    void forEachBasis(BiConsumer<Question, Date> action) {
+        table.forEachBasis(action);
+    }
+
+    //Puts a repetition straight back into its day, for reading a calendar back in, each day's repetitions in the order
+    //forEachStored visits them. The day must not go over maxPerDate, and the question must not already be on it.
+    void restore(int day, Question question, int spaceID, SpacedRepetition repetition) {
+        calendar.add(day, QuestionTable.pack(spaceID, table.index(repetition), table.index(question)));
+        counts.add(day, 1);
+    }
+
+    //Leaves the calendar's days in a snapshot's records, each until it is first written to (see MappedDayStore). The days held
+    //so far are dropped, so the records must hold the same days, or the calendar must be empty (and its counts restored).
+    void mapDays(ByteBuffer records, int[] emptied, SpacedRepetition[] schedules) {
+        if(repairing || lazy) throw new IllegalStateException();
+        calendar = new MappedDayStore(table, order, backend.newStore(table, order), records, emptied, schedules);
+    }
+
+    void restoreCount(int day, int count) {
+        counts.add(day, count);
+    }
+
+    //Gives the day back the empty bucket it had, as repair walks a day it already held differently from one it makes.
+    void restoreDay(int day) {
+        calendar.addDay(day);
+    }
+
+    void restoreBasis(Question question, Date basis) {
+        table.putBasis(table.index(question), basis.datePoint());
+    }
+
+    //Empties the calendar back to how it was made, keeping its metrics and abandon policy, for a subclass to load it again
+    //(see PersistentCalendar).
+    void clear() {
+        if(repairing) throw new IllegalStateException();
+        table = new QuestionTable();
+        calendar = backend.newStore(table, order);
+        counts = new DayCounts();
+        dirty = new TreeSet<>();
+        numAdded = 0;
+        numAbandoned = 0;
+        if(lazy) {
+            pending.clear();
+        }
+        materialized = Integer.MIN_VALUE;
+        if(lessonAbandons != null) {
+            lessonAbandons = new LongIntMap();
+        }
+    }
+
+    void restoreCounts(int numAdded, int numAbandoned) {
+        this.numAdded = numAdded;
+        this.numAbandoned = numAbandoned;
+    }
+
+    int getMaxPerDate() {
+        return maxPerDate;
+    }
+
+    Date getCutoff() {
+        return cutoff;
+    }
+
+    boolean isLazy() {
+        return lazy;
+    }
+
+    DayOrder getDayOrder() {
+        return order;
+    }
+
+    //The last day a lazy calendar has placed repetitions up to.
+    int getMaterialized() {
+        return materialized;
+    }
+
+    void restoreMaterialized(int materialized) {
+        this.materialized = materialized;
+    }
+
+    //Visits the next not-yet-placed repetition of every question in a lazy calendar, in no particular order.
+    void forEachPending(ReviewVisitor visitor) {
+        if(lazy) {
+            for(Pending next : pending) {
+                visitor.visit(table.question(next.question), next.spaceID, next.spacing);
+            }
+        }
+    }
+
+    //Queues the question's repetitions from spaceID on, for reading a lazy calendar back in. Its basis must be restored first.
+    void restorePending(Question question, int spaceID, SpacedRepetition spacing) {
+        int index = table.index(question);
+        pending.add(new Pending(index, table.index(spacing), spacing, table.basis(index), spaceID));
+    }
+
+    //Places every pending repetition due on or before the day, then repairs.
+    private void materialize(int day) {
+        if(!lazy || day <= materialized) {
+            return;
+        }
+        placeDue(day);
+        repair();
+    }
+
+    //Places every pending repetition due on or before the day, without repairing. A repetition pushed on past the days
+    //placed so far places the day it is pushed on to first (see addToMap), so that it meets what is due there, as it would in
+    //an eager calendar; that can move materialized on while this is placing, so it places up to materialized.
+    private void placeDue(int day) {
+        materialized = day;
+        int end = cutoff.datePoint();
+        Pending next;
+        while((next = pending.peek()) != null && next.day <= materialized) {
+            pending.poll();
+            addToMap(next.day, QuestionTable.pack(next.spaceID, next.schedule, next.question));
+            numAdded++;
+            count(CalendarMetrics.Counter.ADDED);
+            if(next.advance(end)) {
+                pending.add(next);
+            } else if(next.spacing.offsetDays(next.spaceID) != SpacedRepetition.NONE) {
+                count(CalendarMetrics.Counter.CUT_OFF);
+            }
+        }
+    }
+
+    //Repairs the dates over-filled since the last repair, in the order the calendar has always walked its dates in: first
+    //every date the store held when the repair began, earliest first, then every date a question was pushed on to during the
+    //repair, in the order they were pushed. Only an over-full date needs any work, so the first walk only visits the dirty
+    //dates. A date pushed on to ahead of the walk is marked dirty for it to reach (see addToMap), unless the store did not
+    //hold it when the repair began, and then it waits for the second walk. The order matters to a HEAP day, whose order
+    //depends on the order its questions arrived in, and to an abandonRepair that draws from a random stream.
     private void repair() {
-        List<Date> toCheck = new ArrayList<>( calendar.keySet().stream().toList());
-        toCheck.sort(Date::compareTo);
-        for(int i = 0; i < toCheck.size(); i++) {
-            Date date = toCheck.get(i);
-            //Tomorrow.
-            Date nextDate = date.add(UNIT_DATE_VECTOR);
-            PriorityQueue<SpacedQuestion> pq = this.calendar.get(date);
-            //Maps a question to the smallest spacing iteration of this exact question that has been seen in the queue for this day.
-            Map<Question, Integer> minSpaceIDs = new HashMap<>();
-            boolean kicked;
-            boolean ran = false;
-            do {
-                kicked = false;
-                for(SpacedQuestion q : pq) {
-                    //If the queue contains this question, but with a smaller iteration value, this is a duplicate -- delay it.
-                    if(minSpaceIDs.containsKey(q) && minSpaceIDs.get(q) < q.getSpaceID()) {
-                        if(!ran) {
-                            toCheck.add(nextDate);
-                            ran = true;
-                        }
-                        kicked = true;
-                        delay(pq, q, nextDate);
-                        break;
-                    }
-                    //Update the mapping.
-                    minSpaceIDs.put(q, q.getSpaceID());
-                }
-            } while(kicked);
-            if(pq.size() <= maxPerDate) {
-                continue;
+        if(dirty.isEmpty()) {
+            return;
+        }
+        long start = startTimer();
+        int days = 0;
+        repairing = true;
+        numPushed = 0;
+        Integer day;
+        while((day = dirty.pollFirst()) != null) {
+            days++;
+            walked = day;
+            repair(day);
+        }
+        walked = Integer.MAX_VALUE;
+        for(int i = 0; i < numPushed; i++) {
+            if(calendar.size(pushed[i]) > maxPerDate) {
+                days++;
+                repair(pushed[i]);
             }
-            boolean anyAdded = false;
-            //Delay (or abandon) the lowest-priority (ordered first for efficiency) question in the queue until we have reached our size goals.
-            while (pq.size() > maxPerDate) {
-                SpacedQuestion sq = pq.peek();
-                if(abandonRepair(sq, date, daysLate(sq, basisIndex, date))) { // just remove the element, we give up
-                    pq.remove();
-                    numAbandoned++;
-                } else {
-                    anyAdded = true;
-                    delayFirst(pq, nextDate);
-                }
+        }
+        repairing = false;
+        madeInRepair = null;
+        if(metrics != null) {
+            stopTimer(CalendarMetrics.Distribution.REPAIR_NANOS, start);
+            metrics.record(CalendarMetrics.Distribution.CASCADE_DAYS, days);
+        }
+    }
+
+    private void repair(int day) {
+        //Tomorrow.
+        int nextDay = day + 1;
+        Date date = new Date(day);
+        //Delay (or abandon) the lowest-priority (ordered last) question in the queue until we have reached our size goals.
+        while (calendar.size(day) > maxPerDate) {
+            long last = calendar.peekLast(day);
+            if(decideAbandon(last, date, daysLate(last, day))) { // just remove the element, we give up
+                pollLast(day);
+                numAbandoned++;
+                count(policy == null ? CalendarMetrics.Counter.ABANDONED_BY_CALLBACK : CalendarMetrics.Counter.ABANDONED_BY_POLICY);
+            } else {
+                delayLast(day, nextDay);
+                count(CalendarMetrics.Counter.DELAYED);
+            }
+        }
+    }
+
+    //Notes a question pushed on to the day during a repair, which made the day if it was not in the store before.
+    private void pushedOnto(int day, boolean made) {
+        if(numPushed == 0 || pushed[numPushed - 1] != day) {
+            if(numPushed == pushed.length) {
+                pushed = Arrays.copyOf(pushed, numPushed * 2);
             }
-            //If we added any questions to tomorrow's queue, we need to check that date as well (it may not originally have been a key in the mapping).
-            if(anyAdded) {
-                toCheck.add(nextDate);
+            pushed[numPushed++] = day;
+        }
+        if(made) {
+            if(madeInRepair == null) {
+                madeInRepair = new LongIntMap();
             }
+            madeInRepair.put(day, 1);
         }
     }
 
     //Skip the questions after the given question number for a given day. I.e., skipping fromQuestion=2 for a day with questions
     //[Q0, Q1, Q2, Q3, Q4] leaves the day with [Q0, Q1] and delays [Q2, Q3, Q4].
     public void skip(Date date, int fromQuestion) {
-        if(!calendar.containsKey(date)) throw new NoSuchElementException();
-        PriorityQueue<SpacedQuestion> pq = calendar.get(date);
-        if(fromQuestion < 0 || fromQuestion >= pq.size()) throw new IllegalArgumentException();
-        int toSkip = pq.size() - fromQuestion;
-        Date nextDate = date.add(UNIT_DATE_VECTOR);
+        long start = startTimer();
+        int day = date.datePoint();
+        materialize(day);
+        if(!calendar.hasDay(day)) throw new NoSuchElementException();
+        int size = calendar.size(day);
+        if(fromQuestion < 0 || fromQuestion >= size) throw new IllegalArgumentException();
+        int toSkip = size - fromQuestion;
         for(int i = 0; i < toSkip; i++) {
-            delayFirst(pq, nextDate);
+            delayLast(day, day + 1);
+            count(CalendarMetrics.Counter.SKIPPED);
         }
         repair();
+        stopTimer(CalendarMetrics.Distribution.SKIP_NANOS, start);
+    }
+
+    //Records the outcome of asking the question on the date: the question is taken off the date, and its next repetition is
+    //scheduled from the quality of the answer (see AdaptiveSpacedRepetition.review), unless it falls past the cutoff.
+    //Only questions added with an AdaptiveSpacedRepetition can be reviewed, and only at their latest repetition.
+    public void recordReview(SpacedQuestion question, Date date, int quality) {
+        if(!(question.getRepetition() instanceof AdaptiveSpacedRepetition)) throw new IllegalArgumentException();
+        long start = startTimer();
+        int day = date.datePoint();
+        materialize(day);
+        int index = table.indexOf(question.getId());
+        long held = index < 0 ? QuestionTable.NONE : calendar.get(day, question.getId(), question.getSpaceID());
+        if(held == QuestionTable.NONE) throw new NoSuchElementException();
+        //The calendar's own schedule for the question, which in a fork may be a copy of the one the question was handed out with.
+        int schedule = QuestionTable.schedule(held);
+        if(!(table.schedule(schedule) instanceof AdaptiveSpacedRepetition)) throw new IllegalArgumentException();
+        AdaptiveSpacedRepetition adaptive = (AdaptiveSpacedRepetition) table.ownSchedule(schedule);
+        if(question.getSpaceID() != adaptive.scheduled() - 1) throw new IllegalStateException();
+        calendar.remove(day, question.getId(), question.getSpaceID());
+        counts.add(day, -1);
+        int basis = table.basis(index);
+        int offset = adaptive.review(day - basis, quality);
+        if(basis + offset < cutoff.datePoint()) {
+            addToMap(basis + offset, QuestionTable.pack(question.getSpaceID() + 1, schedule, index));
+            numAdded++;
+            count(CalendarMetrics.Counter.ADDED);
+            repair();
+        } else {
+            count(CalendarMetrics.Counter.CUT_OFF);
+        }
+        stopTimer(CalendarMetrics.Distribution.REVIEW_NANOS, start);
     }
 
     //The set of questions to be asked on the date, in the order they are to be asked.
     public Collection<SpacedQuestion> getForDate(Date date) {
-        List<SpacedQuestion> questions = new ArrayList<>(calendar.getOrDefault(date, new PriorityQueue<>()).stream().toList());
-        Collections.reverse(questions);
+        int day = date.datePoint();
+        materialize(day);
+        List<SpacedQuestion> questions = new ArrayList<>(calendar.size(day));
+        calendar.forEach(day, (question, spaceID, repetition) -> questions.add(new SpacedQuestion(question, spaceID, repetition)));
         return questions;
     }
 
+    //Visits the questions to be asked on the date, in the order they are to be asked, without copying the day or allocating.
+    //The visitor must not modify this calendar.
+    public void forEachOnDate(Date date, ReviewVisitor visitor) {
+        materialize(date.datePoint());
+        calendar.forEach(date, visitor);
+    }
+
+    //The number of questions to be asked on the days from from (inclusive) to to (exclusive).
+    public int countBetween(Date from, Date to) {
+        materialize(to.datePoint() - 1);
+        return counts.between(from.datePoint(), to.datePoint());
+    }
+
+    //Visits the questions to be asked on the days from from (inclusive) to to (exclusive), day by day and each day in the order
+    //they are to be asked. Empty days are skipped without being probed. The visitor must not modify this calendar.
+    public void forEachBetween(Date from, Date to, DatedReviewVisitor visitor) {
+        int end = to.datePoint();
+        materialize(end - 1);
+        for(int day = counts.next(from.datePoint()); day < end; day = counts.next(day + 1)) {
+            Date date = new Date(day);
+            calendar.forEach(day, (question, spaceID, repetition) -> visitor.visit(date, question, spaceID, repetition));
+        }
+    }
+
+    //The number of questions on each day from from (inclusive) to to (exclusive), indexed from from.
+    public int[] loadBetween(Date from, Date to) {
+        int first = from.datePoint();
+        int[] load = new int[Math.max(0, to.datePoint() - first)];
+        materialize(to.datePoint() - 1);
+        for(int day = counts.next(first); day < first + load.length; day = counts.next(day + 1)) {
+            load[day - first] = calendar.size(day);
+        }
+        return load;
+    }
+
+    //Records the number of questions on each day from from (inclusive) to to (exclusive), empty days included, into the histogram.
+    public void recordLoadBetween(Date from, Date to, Histogram into) {
+        for(int load : loadBetween(from, to)) {
+            into.record(load);
+        }
+    }
+
+    //The first day on or after the date with a question to be asked, or null if there is none. A lazy calendar places its
+    //pending repetitions only up to that day.
+    public Date nextDate(Date from) {
+        int day = from.datePoint();
+        if(lazy && !pending.isEmpty()) {
+            //Repair never empties a day and a placed repetition leaves its day non-empty, so once the earlier of the next placed
+            //day and the next due day is placed, the answer is on or before it.
+            materialize(Math.min(counts.next(day), Math.max(day, pending.peek().day)));
+        }
+        int next = counts.next(day);
+        return next == Integer.MAX_VALUE ? null : new Date(next);
+    }
+
+    //The first day with a question to be asked, or null if there is none.
+    public Date earliestDate() {
+        //A pending repetition can only land before the first placed day if it is due on or before it.
+        if(lazy && !pending.isEmpty() && (counts.total() == 0 || pending.peek().day <= counts.first())) {
+            materialize(pending.peek().day);
+        }
+        return counts.total() == 0 ? null : new Date(counts.first());
+    }
+
+    //The last day with a question to be asked, including days past the cutoff that repetitions have been pushed on to, or null
+    //if there is none. A lazy calendar has to place all its repetitions to know.
+    public Date latestDate() {
+        materialize(cutoff.datePoint() - 1);
+        return counts.total() == 0 ? null : new Date(counts.last());
+    }
+
     public Date indexBasis(Question question) {
-        return basisIndex.get(question);
+        int index = table.indexOf(question.getId());
+        return index < 0 || !table.hasBasis(index) ? null : new Date(table.basis(index));
     }
 
     //The number of questions to be asked on the date.
     public int count(Date date) {
-        return calendar.getOrDefault(date, new PriorityQueue<>()).size();
+        materialize(date.datePoint());
+        return calendar.size(date);
     }
 
-    private void addToMap(Date date, SpacedQuestion question) {
-//        System.out.println("Adding " + question + " to " + date);
-        if(!calendar.containsKey(date)) {
-            calendar.put(date, new PriorityQueue<>(new QuestionComparator()));
+    //Adds the question to the day, keeping at most one repetition of any question per day: of two repetitions of the same
+    //question, the one with the smaller spaceID stays, and the other is pushed on to the next day (and so on). A repetition
+    //pushed off for being a duplicate is never abandoned, as the calendar has always done; only repair abandons.
+    private void addToMap(int day, long repetition) {
+        while(repetition != QuestionTable.NONE) {
+            if(lazy && day > materialized) {
+                //Nothing on the day has been placed yet.
+                placeDue(day);
+            }
+            int question = QuestionTable.question(repetition);
+            int spaceID = QuestionTable.spaceID(repetition);
+            int heldSpaceID = calendar.spaceIDOf(day, question);
+            long kicked = QuestionTable.NONE;
+            if(heldSpaceID >= 0 && heldSpaceID <= spaceID) {
+                //This is the duplicate -- redirect it.
+                kicked = repetition;
+            } else {
+                if(heldSpaceID >= 0) {
+                    //The held repetition is the duplicate -- swap it out.
+                    kicked = calendar.remove(day, table.question(question).getId(), heldSpaceID);
+                } else {
+                    counts.add(day, 1);
+                }
+                boolean made = repairing && !calendar.hasDay(day);
+                calendar.add(day, repetition);
+                if(repairing) {
+                    pushedOnto(day, made);
+                }
+                if(calendar.size(day) > maxPerDate && (!repairing || day > walked && (madeInRepair == null || !madeInRepair.containsKey(day)))) {
+                    dirty.add(day);
+                }
+            }
+            if(kicked != QuestionTable.NONE) {
+                count(CalendarMetrics.Counter.DUPLICATES);
+                count(CalendarMetrics.Counter.DELAYED);
+            }
+            repetition = kicked;
+            day++;
+        }
+    }
+
+    //A calendar that starts out the same as this one and then goes its own way, for branching what-if scenarios off a shared
+    //history: neither sees the other's changes. Forking is O(1), as the two share every day until one of them writes to it,
+    //and then only that day is copied. The first write after a fork also copies the index of days (references only) and the
+    //per-day counts, and the first question added or reviewed copies the question table, all O(days) or O(questions).
+    //Beyond that, a lazy calendar's pending queue is copied outright (one entry per question), a fork with an abandon policy
+    //draws from a split of this calendar's random stream, and metrics stay shared. A subclass is copied as by clone, so one
+    //with mutable state of its own should override this to copy it. The two may then be used from different threads.
+    public ReviewCalendar fork() {
+        if(!dirty.isEmpty()) throw new IllegalStateException();
+        ReviewCalendar fork;
+        try {
+            fork = (ReviewCalendar) clone();
+        } catch(CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        fork.table = table.fork();
+        fork.calendar = calendar.fork(fork.table);
+        fork.counts = counts.fork();
+        fork.dirty = new TreeSet<>();
+        fork.pushed = new int[16];
+        if(lazy) {
+            fork.pending = new PriorityQueue<>(pending.comparator());
+            for(Pending next : pending) {
+                fork.pending.add(next.copy());
+            }
         }
-        calendar.get(date).add(question);
+        if(policy != null) {
+            fork.policyRandom = policyRandom.split();
+            fork.lessonAbandons = lessonAbandons == null ? null : lessonAbandons.copy();
+        }
+        return fork;
     }
 
     //Add the question at the given starting date and with the given spacing.
     public void addWithSpacing(Question question, Date dateBasis, SpacedRepetition spacing) {
-        Date dateVector = spacing.getDateVector(0);
+        long start = startTimer();
+        place(question, dateBasis, spacing);
+        repair();
+        stopTimer(CalendarMetrics.Distribution.ADD_NANOS, start);
+    }
+
+    //Add every question (such as a whole lesson) at the given starting date and with the given spacing, placing them all and
+    //then repairing once, so a lesson that overflows its days costs one cascade rather than one per question. Duplicates are
+    //caught as they are placed (see addToMap), the same way whatever order they arrive in. This gives the same calendar as
+    //adding the questions one at a time under the conditions a lazy calendar gives the same days as an eager one: days kept
+    //SORTED, an abandonRepair that depends only on its arguments, and either nothing abandoned or no repetition pushed off a
+    //day as a duplicate. Otherwise it may keep a different repetition where one overflows a day, as a repair between adds can
+    //decide on a repetition before a later add pushes it off as a duplicate, and a HEAP day's order depends on the order its
+    //repetitions arrived in. Its time is recorded under ADD_ALL_NANOS, once per call.
+    public void addAllWithSpacing(Collection<? extends Question> questions, Date dateBasis, SpacedRepetition spacing) {
+        long start = startTimer();
+        for(Question question : questions) {
+            place(question, dateBasis, spacing);
+        }
+        repair();
+        stopTimer(CalendarMetrics.Distribution.ADD_ALL_NANOS, start);
+    }
+
+    //Places the question's repetitions (or, in a lazy calendar, queues those past the days reached so far) without repairing.
+    private void place(Question question, Date dateBasis, SpacedRepetition spacing) {
+        int basis = dateBasis.datePoint();
+        int end = cutoff.datePoint();
+        int index = table.index(question);
+        int schedule = table.index(spacing);
+        table.putBasis(index, basis);
+        int offset;
         int spaceID = 0;
-        Date date;
-        basisIndex.put(question, dateBasis);
-        while(dateVector != null && (date = dateBasis.add(dateVector)).compareTo(cutoff) < 0) {
-            SpacedQuestion sdq = new SpacedQuestion(question, spaceID, spacing);
-            this.addToMap(date, sdq);
+        for(; (offset = spacing.offsetDays(spaceID)) != SpacedRepetition.NONE && basis + offset < end; spaceID++) {
+            if(lazy && basis + offset > materialized) {
+                //The rest are placed as their days are reached.
+                pending.add(new Pending(index, schedule, spacing, basis, spaceID));
+                return;
+            }
+            this.addToMap(basis + offset, QuestionTable.pack(spaceID, schedule, index));
             numAdded++;
-            dateVector = spacing.getDateVector(++spaceID);
+            count(CalendarMetrics.Counter.ADDED);
+        }
+        if(offset != SpacedRepetition.NONE) {
+            count(CalendarMetrics.Counter.CUT_OFF);
         }
-        repair();
     }
-}
\ No newline at end of file
+}
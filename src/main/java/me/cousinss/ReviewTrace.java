@@ -0,0 +1,262 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//A recorded stream of calendar calls by many learners, for replaying against ReviewCalendar (see TraceReplay). The format is
+//plain text, one line per record, so it can be exported from service logs with anything:
+//  header     "#trace v1", then one "schedule <offset>,<offset>,..." line per static schedule, numbered from 0
+//  events     "<millis> <day> <learner> add <lesson> <questions> <schedule>": the lesson, of the given number of questions,
+//             is added to the learner's calendar on the day with the numbered schedule. Every learner given the same lesson
+//             gets the same questions, as with LessonFanout, so its size and schedule never change.
+//             "<millis> <day> <learner> read": the learner fetches the day's questions.
+//             "<millis> <day> <learner> skip <keep>": the learner skips the day's questions after the first keep.
+//millis is the event's time since the trace began and never goes backwards, and day is the learner's calendar day, which is
+//recorded rather than derived so that learners in different time zones replay as they ran. Lines starting with '#' past the
+//header, and blank lines, are ignored. A trace is read whole into memory, so replaying it measures the calendar, not parsing.
+public final class ReviewTrace {
+
+    public static final String HEADER = "#trace v1";
+
+    public enum Op {
+        ADD, READ, SKIP
+    }
+
+    private static final Op[] OPS = Op.values();
+
+    //A lesson, shared by every learner it is added to.
+    private record Lesson(List<Question> questions, int schedule) {}
+
+    private final List<SpacedRepetition> schedules;
+    private final List<Lesson> lessons;
+    private final int size;
+    private final long[] millis;
+    private final int[] days;
+    private final long[] learners;
+    private final byte[] ops;
+    //The lesson's number (in lessons) for an add, keep for a skip.
+    private final int[] args;
+
+    private ReviewTrace(List<SpacedRepetition> schedules, List<Lesson> lessons, int size, long[] millis, int[] days, long[] learners,
+                        byte[] ops, int[] args) {
+        this.schedules = schedules;
+        this.lessons = lessons;
+        this.size = size;
+        this.millis = millis;
+        this.days = days;
+        this.learners = learners;
+        this.ops = ops;
+        this.args = args;
+    }
+
+    public static ReviewTrace read(Path path) throws IOException {
+        try(Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(in);
+        }
+    }
+
+    public static ReviewTrace read(Reader reader) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 1 << 16);
+        if(!HEADER.equals(in.readLine())) throw new IOException("Not a trace: missing \"" + HEADER + "\"");
+        List<SpacedRepetition> schedules = new ArrayList<>();
+        List<Lesson> lessons = new ArrayList<>();
+        Map<Integer, Integer> lessonIndex = new HashMap<>();
+        //Questions are numbered in the order their lessons first appear, so every replay of the trace holds the same ids.
+        IdAllocator ids = new IdAllocator(0);
+        int capacity = 1 << 10;
+        long[] millis = new long[capacity];
+        int[] days = new int[capacity];
+        long[] learners = new long[capacity];
+        byte[] ops = new byte[capacity];
+        int[] args = new int[capacity];
+        int size = 0;
+        int lineNumber = 1;
+        String line;
+        while((line = in.readLine()) != null) {
+            lineNumber++;
+            if(line.isBlank() || line.startsWith("#")) continue;
+            String[] fields = line.trim().split("\\s+");
+            try {
+                if(fields[0].equals("schedule")) {
+                    if(size > 0 || fields.length != 2) throw new IOException("Schedules belong in the header");
+                    schedules.add(new StaticSpacedRepetition(Arrays.stream(fields[1].split(",")).mapToInt(Integer::parseInt).toArray()));
+                    continue;
+                }
+                if(fields.length < 4) throw new IOException("Too few fields");
+                if(size == capacity) {
+                    capacity *= 2;
+                    millis = Arrays.copyOf(millis, capacity);
+                    days = Arrays.copyOf(days, capacity);
+                    learners = Arrays.copyOf(learners, capacity);
+                    ops = Arrays.copyOf(ops, capacity);
+                    args = Arrays.copyOf(args, capacity);
+                }
+                millis[size] = Long.parseLong(fields[0]);
+                if(size > 0 && millis[size] < millis[size - 1]) throw new IOException("Time goes backwards");
+                days[size] = Integer.parseInt(fields[1]);
+                learners[size] = Long.parseLong(fields[2]);
+                switch(fields[3]) {
+                    case "add" -> {
+                        if(fields.length != 7) throw new IOException("Expected add <lesson> <questions> <schedule>");
+                        int id = Integer.parseInt(fields[4]);
+                        int count = Integer.parseInt(fields[5]);
+                        int schedule = Integer.parseInt(fields[6]);
+                        if(count < 0 || schedule < 0 || schedule >= schedules.size()) throw new IOException("No such schedule or size");
+                        Integer index = lessonIndex.get(id);
+                        if(index == null) {
+                            List<Question> questions = new ArrayList<>(count);
+                            for(int q = 0; q < count; q++) {
+                                questions.add(new Question("L" + id + "." + q, id, ids));
+                            }
+                            index = lessons.size();
+                            lessons.add(new Lesson(List.copyOf(questions), schedule));
+                            lessonIndex.put(id, index);
+                        } else if(lessons.get(index).questions().size() != count || lessons.get(index).schedule() != schedule) {
+                            throw new IOException("Lesson " + id + " changed size or schedule");
+                        }
+                        ops[size] = (byte) Op.ADD.ordinal();
+                        args[size] = index;
+                    }
+                    case "read" -> {
+                        if(fields.length != 4) throw new IOException("Expected read");
+                        ops[size] = (byte) Op.READ.ordinal();
+                    }
+                    case "skip" -> {
+                        if(fields.length != 5) throw new IOException("Expected skip <keep>");
+                        args[size] = Integer.parseInt(fields[4]);
+                        if(args[size] < 0) throw new IOException("Negative keep");
+                        ops[size] = (byte) Op.SKIP.ordinal();
+                    }
+                    default -> throw new IOException("Unknown event " + fields[3]);
+                }
+                size++;
+            } catch(IOException | NumberFormatException e) {
+                throw new IOException("Malformed trace line " + lineNumber + " (" + e.getMessage() + "): " + line, e);
+            }
+        }
+        return new ReviewTrace(List.copyOf(schedules), List.copyOf(lessons), size, millis, days, learners, ops, args);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<SpacedRepetition> schedules() {
+        return schedules;
+    }
+
+    //The time from the first event to the last.
+    public long durationMillis() {
+        return size == 0 ? 0 : millis[size - 1] - millis[0];
+    }
+
+    //The latest day of any event, or 0 for an empty trace.
+    public int lastDay() {
+        int last = 0;
+        for(int i = 0; i < size; i++) {
+            last = Math.max(last, days[i]);
+        }
+        return last;
+    }
+
+    long millis(int event) {
+        return millis[event];
+    }
+
+    int day(int event) {
+        return days[event];
+    }
+
+    long learner(int event) {
+        return learners[event];
+    }
+
+    Op op(int event) {
+        return OPS[ops[event]];
+    }
+
+    //The questions of an add's lesson.
+    List<Question> lesson(int event) {
+        return lessons.get(args[event]).questions();
+    }
+
+    //The schedule of an add's lesson.
+    SpacedRepetition spacing(int event) {
+        return schedules.get(lessons.get(args[event]).schedule());
+    }
+
+    //The number of questions a skip keeps.
+    int keep(int event) {
+        return args[event];
+    }
+
+    //Writes a trace as it is recorded or generated, checking each event against the format.
+    public static final class Writer implements Closeable {
+
+        private final java.io.Writer out;
+        private final int schedules;
+        private long lastMillis;
+
+        public Writer(Path path, List<SpacedRepetition> schedules) throws IOException {
+            this(Files.newBufferedWriter(path, StandardCharsets.UTF_8), schedules);
+        }
+
+        //Only static schedules can be written, as a list of offsets.
+        public Writer(java.io.Writer out, List<SpacedRepetition> schedules) throws IOException {
+            this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+            this.schedules = schedules.size();
+            this.out.write(HEADER);
+            this.out.write('\n');
+            for(SpacedRepetition schedule : schedules) {
+                if(schedule instanceof AdaptiveSpacedRepetition) throw new IllegalArgumentException("Adaptive schedules are per question");
+                StringBuilder line = new StringBuilder("schedule ");
+                for(int n = 0; schedule.offsetDays(n) != SpacedRepetition.NONE; n++) {
+                    line.append(n == 0 ? "" : ",").append(schedule.offsetDays(n));
+                }
+                this.out.write(line.append('\n').toString());
+            }
+        }
+
+        private void event(long millis, int day, long learner, String event) throws IOException {
+            if(millis < lastMillis) throw new IllegalArgumentException("Time goes backwards: " + millis + " after " + lastMillis);
+            lastMillis = millis;
+            out.write(millis + " " + day + " " + learner + " " + event + "\n");
+        }
+
+        public void add(long millis, int day, long learner, int lesson, int questions, int schedule) throws IOException {
+            if(schedule < 0 || schedule >= schedules) throw new IllegalArgumentException("No schedule " + schedule);
+            event(millis, day, learner, "add " + lesson + " " + questions + " " + schedule);
+        }
+
+        public void read(long millis, int day, long learner) throws IOException {
+            event(millis, day, learner, "read");
+        }
+
+        public void skip(long millis, int day, long learner, int keep) throws IOException {
+            if(keep < 0) throw new IllegalArgumentException("Negative keep");
+            event(millis, day, learner, "skip " + keep);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+//Receives the repetitions of a day one at a time, as their parts rather than as SpacedQuestion objects, so that reading a
+//day from the calendar needs no allocation.
+@FunctionalInterface
+public interface ReviewVisitor {
+
+    void visit(Question question, int spaceID, SpacedRepetition repetition);
+}
@@ -0,0 +1,19 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+//How a MonteCarloSimulation trial moves through its days. Both clocks simulate the same process (a lesson each day with
+//probability feedChance, and skips on each day with questions), so their results agree in distribution, but they draw from the
+//random stream differently and so give different individual trials for the same seed.
+public enum SimulationClock {
+    //Steps through every day up to the end date, making one lesson pass per day: it draws whether to post a lesson on each.
+    DAILY,
+    //Jumps from event to event: the next lesson day is drawn directly (the gap between lessons is geometric), and the next day
+    //with questions comes from the calendar's day index, so days with neither are never visited. The cost follows the number
+    //of events rather than days, which suits long, sparse horizons.
+    EVENTS
+}
@@ -12,6 +12,11 @@ import java.util.function.Function;
 @FunctionalInterface
 public interface SpacedRepetition extends Function<Integer, Date> {
 
+    /**
+     * The value of {@link #offsetDays(int)} when there is no such repetition.
+     */
+    int NONE = Integer.MIN_VALUE;
+
     /**
      * Returns the date vector for the {@code n}th repetition, or {@code null} if no such value is accessible.
      * @param n the repetition id.
@@ -23,6 +28,26 @@ public interface SpacedRepetition extends Function<Integer, Date> {
         return apply(n);
     }
 
+    /**
+     * Returns the offset in days from the first-ask date of the {@code n}th repetition, or {@link #NONE} if no such value is
+     * accessible. The primitive form of {@link #getDateVector(int)}: implementations should override it to avoid boxing.
+     * @param n the repetition id.
+     * @return the offset in days.
+     */
+    default int offsetDays(int n) {
+        Date dateVector = apply(n);
+        return dateVector == null ? NONE : dateVector.datePoint();
+    }
+
+    /**
+     * Materializes every repetition with an offset below {@code horizon} days into an int array.
+     * @param horizon the number of days to compile.
+     * @return the compiled schedule.
+     */
+    default CompiledSpacedRepetition compile(int horizon) {
+        return new CompiledSpacedRepetition(this, horizon);
+    }
+
     default Date[] asArray(int count) {
         Date[] dates = new Date[count];
         for (int i = 0; i < count; i++) {
@@ -6,12 +6,20 @@
 
 package me.cousinss;
 
+import java.util.Arrays;
+
 public class StaticSpacedRepetition implements SpacedRepetition {
 
     private final Date[] dateVectors;
+    private final int[] offsets;
 
     public StaticSpacedRepetition(Date... dateVectors) {
-        this.dateVectors = dateVectors;
+        this.dateVectors = dateVectors.clone();
+        this.offsets = Arrays.stream(dateVectors).mapToInt(Date::datePoint).toArray();
+    }
+
+    public StaticSpacedRepetition(int... offsets) {
+        this(Arrays.stream(offsets).mapToObj(Date::new).toArray(Date[]::new));
     }
 
     @Override
@@ -19,9 +27,14 @@ public class StaticSpacedRepetition implements SpacedRepetition {
         return dateVectors.length > n ? dateVectors[n] : null;
     }
 
+    @Override
+    public int offsetDays(int n) {
+        return n >= 0 && n < offsets.length ? offsets[n] : NONE;
+    }
+
     @Override
     public Date[] asArray(int count) {
-        return dateVectors;
+        return Arrays.copyOf(dateVectors, count);
     }
 
 }
@@ -0,0 +1,55 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+//Receives the summarized results of a ParameterSweep one cell at a time, in cell order, as soon as they are available.
+public interface SweepSink extends Closeable {
+
+    void accept(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) throws IOException;
+
+    //Called as soon as each cell finishes, ahead of accept: from the thread that ran it, in no particular order and possibly
+    //concurrently, so it must be thread-safe and quick. For sinks that show progress; most need not override it.
+    default void completed(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) {}
+
+    //Whether the sweep should stop early. Checked before each cell is run, from any thread; once it is true no more cells
+    //are started, and accept is only called for the unbroken run of cells from the first that finished.
+    default boolean stopped() {
+        return false;
+    }
+
+    //A sink handing everything to both, which stops when either does.
+    static SweepSink both(SweepSink first, SweepSink second) {
+        return new SweepSink() {
+            @Override
+            public void accept(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) throws IOException {
+                first.accept(cell, late, abandoned);
+                second.accept(cell, late, abandoned);
+            }
+
+            @Override
+            public void completed(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) {
+                first.completed(cell, late, abandoned);
+                second.completed(cell, late, abandoned);
+            }
+
+            @Override
+            public boolean stopped() {
+                return first.stopped() || second.stopped();
+            }
+
+            @Override
+            public void close() throws IOException {
+                try(first) {
+                    second.close();
+                }
+            }
+        };
+    }
+}
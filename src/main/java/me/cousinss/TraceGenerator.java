@@ -0,0 +1,206 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+//Generates a synthetic ReviewTrace shaped like real traffic rather than App's uniform loop. Learners sit in cohorts (classes),
+//and lessons arrive in bursts: on a burst day a cohort is given several lessons a few minutes apart, each added to every learner
+//in it at once. Skips are correlated in time, as a learner who skipped yesterday is likely to skip today, and across a cohort,
+//as on a pressured day (an exam, a heavy week) every learner in it is more likely to start skipping. Learners also go idle for
+//stretches of days, reading nothing while their reviews pile up. Each active learner reads once a day near their own usual
+//time, and a skipping learner then answers keep questions (0 to 2) and skips the rest. The same seed always gives the same trace.
+public class TraceGenerator {
+
+    private static final long MINUTE_MILLIS = 60_000;
+    private static final long DAY_MILLIS = 24 * 60 * MINUTE_MILLIS;
+
+    //One event of the day being generated, before the day is sorted by time. questions is keep for a skip.
+    private record Event(long millis, long learner, ReviewTrace.Op op, int lesson, int questions, int schedule) {}
+
+    private final List<SpacedRepetition> schedules;
+    private final int learners;
+    private final int cohortSize;
+    private final int days;
+    //The largest lesson; lessons are uniformly 1 to maxLessonSize questions.
+    private final int maxLessonSize;
+    //The chance a cohort is given a burst of lessons on a day, and the average number of lessons in a burst.
+    private final float burstChance;
+    private final float burstLessons;
+    //The chance an active learner goes idle on a day, and the average length of an idle stretch in days.
+    private final float idleChance;
+    private final float idleDays;
+    //The chance a learner starts skipping on an ordinary day and on a pressured day, and the chance they go on skipping the day after.
+    private final float skipChance;
+    private final float pressuredSkipChance;
+    private final float skipPersistence;
+    //The chance a cohort's day is pressured.
+    private final float pressureChance;
+    private final long seed;
+
+    public TraceGenerator(List<SpacedRepetition> schedules, int learners, int cohortSize, int days, int maxLessonSize, float burstChance,
+                          float burstLessons, float idleChance, float idleDays, float skipChance, float pressuredSkipChance,
+                          float skipPersistence, float pressureChance, long seed) {
+        if(schedules.isEmpty() || learners <= 0 || cohortSize <= 0 || days <= 0 || maxLessonSize <= 0 || burstLessons < 1 || idleDays < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.schedules = List.copyOf(schedules);
+        this.learners = learners;
+        this.cohortSize = cohortSize;
+        this.days = days;
+        this.maxLessonSize = maxLessonSize;
+        this.burstChance = burstChance;
+        this.burstLessons = burstLessons;
+        this.idleChance = idleChance;
+        this.idleDays = idleDays;
+        this.skipChance = skipChance;
+        this.pressuredSkipChance = pressuredSkipChance;
+        this.skipPersistence = skipPersistence;
+        this.pressureChance = pressureChance;
+        this.seed = seed;
+    }
+
+    public List<SpacedRepetition> schedules() {
+        return schedules;
+    }
+
+    //A draw from the geometric distribution on 1, 2, 3, ... with the given mean (at least 1), by inversion.
+    private static int geometric(float mean, SplittableRandom random) {
+        if(mean <= 1) {
+            return 1;
+        }
+        return 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log1p(-1 / (double) mean));
+    }
+
+    //Writes the whole trace, a day at a time, returning the number of events written.
+    public long generate(ReviewTrace.Writer out) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int cohorts = (learners + cohortSize - 1) / cohortSize;
+        //Each learner's usual reading time, in minutes after midnight, between 6:00 and 22:00.
+        int[] readMinute = new int[learners];
+        int[] idleUntil = new int[learners];
+        boolean[] skipping = new boolean[learners];
+        for(int l = 0; l < learners; l++) {
+            readMinute[l] = 6 * 60 + random.nextInt(16 * 60);
+        }
+        int nextLesson = 0;
+        long written = 0;
+        List<Event> events = new ArrayList<>();
+        for(int day = 0; day < days; day++) {
+            long midnight = day * DAY_MILLIS;
+            events.clear();
+            for(int c = 0; c < cohorts; c++) {
+                int first = c * cohortSize;
+                int last = Math.min(learners, first + cohortSize);
+                if(random.nextFloat() < burstChance) {
+                    //Posted during the working day, a few minutes apart.
+                    long at = midnight + (8 * 60 + random.nextInt(12 * 60)) * MINUTE_MILLIS;
+                    int lessons = geometric(burstLessons, random);
+                    for(int n = 0; n < lessons; n++) {
+                        int lesson = nextLesson++;
+                        int questions = 1 + random.nextInt(maxLessonSize);
+                        int schedule = random.nextInt(schedules.size());
+                        for(int l = first; l < last; l++) {
+                            events.add(new Event(at, l + 1, ReviewTrace.Op.ADD, lesson, questions, schedule));
+                        }
+                        at = Math.min(at + (1 + random.nextInt(10)) * MINUTE_MILLIS, midnight + DAY_MILLIS - 1);
+                    }
+                }
+                boolean pressured = random.nextFloat() < pressureChance;
+                for(int l = first; l < last; l++) {
+                    if(day < idleUntil[l]) continue;
+                    if(random.nextFloat() < idleChance) {
+                        idleUntil[l] = day + geometric(idleDays, random);
+                        skipping[l] = false;
+                        continue;
+                    }
+                    skipping[l] = random.nextFloat() < (skipping[l] ? skipPersistence : pressured ? pressuredSkipChance : skipChance);
+                    //Within an hour either side of the usual time, and never past the end of the day.
+                    int minute = Math.max(0, Math.min(24 * 60 - 31, readMinute[l] + random.nextInt(121) - 60));
+                    long at = midnight + minute * MINUTE_MILLIS + random.nextInt((int) MINUTE_MILLIS);
+                    events.add(new Event(at, l + 1, ReviewTrace.Op.READ, 0, 0, 0));
+                    if(skipping[l]) {
+                        events.add(new Event(at + (1 + random.nextInt(30)) * MINUTE_MILLIS, l + 1, ReviewTrace.Op.SKIP, 0,
+                                random.nextInt(3), 0));
+                    }
+                }
+            }
+            //A stable sort, so events at the same moment stay in the order they were drawn.
+            events.sort(Comparator.comparingLong(Event::millis));
+            for(Event event : events) {
+                switch(event.op()) {
+                    case ADD -> out.add(event.millis(), day, event.learner(), event.lesson(), event.questions(), event.schedule());
+                    case READ -> out.read(event.millis(), day, event.learner());
+                    case SKIP -> out.skip(event.millis(), day, event.learner(), event.questions());
+                }
+            }
+            written += events.size();
+        }
+        return written;
+    }
+
+    //Writes a trace. Arguments are key=value pairs; every key but out is optional:
+    //  out=<file> learners=1000 cohortSize=25 days=120 maxLessonSize=5 burstChance=0.15 burstLessons=2 idleChance=0.03
+    //  idleDays=5 skipChance=0.05 pressuredSkipChance=0.4 skipPersistence=0.6 pressureChance=0.05 seed=0
+    //  schedule=0,1,2,5,8,14 (schedule may be repeated; lessons draw one of them uniformly)
+    public static void main(String[] args) throws IOException {
+        Path out = null;
+        int learners = 1000;
+        int cohortSize = 25;
+        int days = 120;
+        int maxLessonSize = 5;
+        float burstChance = 0.15f;
+        float burstLessons = 2;
+        float idleChance = 0.03f;
+        float idleDays = 5;
+        float skipChance = 0.05f;
+        float pressuredSkipChance = 0.4f;
+        float skipPersistence = 0.6f;
+        float pressureChance = 0.05f;
+        long seed = 0;
+        List<SpacedRepetition> schedules = new ArrayList<>();
+        for(String arg : args) {
+            int eq = arg.indexOf('=');
+            if(eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            String value = arg.substring(eq + 1);
+            switch(arg.substring(0, eq)) {
+                case "out" -> out = Path.of(value);
+                case "learners" -> learners = Integer.parseInt(value);
+                case "cohortSize" -> cohortSize = Integer.parseInt(value);
+                case "days" -> days = Integer.parseInt(value);
+                case "maxLessonSize" -> maxLessonSize = Integer.parseInt(value);
+                case "burstChance" -> burstChance = Float.parseFloat(value);
+                case "burstLessons" -> burstLessons = Float.parseFloat(value);
+                case "idleChance" -> idleChance = Float.parseFloat(value);
+                case "idleDays" -> idleDays = Float.parseFloat(value);
+                case "skipChance" -> skipChance = Float.parseFloat(value);
+                case "pressuredSkipChance" -> pressuredSkipChance = Float.parseFloat(value);
+                case "skipPersistence" -> skipPersistence = Float.parseFloat(value);
+                case "pressureChance" -> pressureChance = Float.parseFloat(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "schedule" -> schedules.add(new StaticSpacedRepetition(Arrays.stream(value.split(",")).map(String::trim)
+                        .mapToInt(Integer::parseInt).toArray()));
+                default -> throw new IllegalArgumentException("Unknown key " + arg.substring(0, eq));
+            }
+        }
+        if(out == null) throw new IllegalArgumentException("Missing out=<file>");
+        if(schedules.isEmpty()) {
+            schedules.add(new StaticSpacedRepetition(0, 1, 2, 5, 8, 14));
+        }
+        TraceGenerator generator = new TraceGenerator(schedules, learners, cohortSize, days, maxLessonSize, burstChance, burstLessons,
+                idleChance, idleDays, skipChance, pressuredSkipChance, skipPersistence, pressureChance, seed);
+        try(ReviewTrace.Writer writer = new ReviewTrace.Writer(out, generator.schedules())) {
+            System.out.println("Wrote " + generator.generate(writer) + " events to " + out);
+        }
+    }
+}
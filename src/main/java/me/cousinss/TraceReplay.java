@@ -0,0 +1,309 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//Replays a ReviewTrace against one ReviewCalendar per learner, held by a CalendarRegistry, and reports throughput, the latency
+//of each call by operation, and the late and abandoned statistics of the calendars left at the end. Each learner's calendar is a
+//PolicyCalendar with MonteCarloSimulation's abandon policy, drawing from a stream seeded by the learner's id, so a replay's
+//statistics depend only on the trace, maxPerDate, cutoff and seed: the same whatever the backend or number of threads.
+//With one thread the trace is replayed on the calling thread. With more, events are sharded by learner as in LessonFanout: each
+//worker owns a fixed subset of the registry's stripes and is fed batches of its events through a bounded queue, so each
+//learner's events stay in trace order. Replay runs flat out, or paced to the trace's own timing at a time-scale.
+public class TraceReplay {
+
+    //The results of one replay. latencies holds each call's time in nanoseconds, by ReviewTrace.Op ordinal. lag holds how far
+    //behind the trace's timing each call started, and is only recorded when paced. averageLate is over every repetition left in
+    //the calendars (as in MonteCarloSimulation), emptySkips counts the skips that found no more than keep questions to skip, and
+    //learners counts the learners given a calendar (by an add or skip).
+    public record Report(CalendarBackend backend, int threads, int events, long elapsedNanos, Histogram[] latencies, Histogram lag,
+                         long emptySkips, int learners, double averageLate, double abandonedPortion) {
+
+        public double eventsPerSecond() {
+            return elapsedNanos == 0 ? 0 : events * 1e9 / elapsedNanos;
+        }
+
+        public Histogram latency(ReviewTrace.Op op) {
+            return latencies[op.ordinal()];
+        }
+    }
+
+    private static final int BATCH_SIZE = 256;
+    //Batches queued per worker before the dispatcher blocks.
+    private static final int QUEUE_CAPACITY = 4;
+    //Tells a worker to exit.
+    private static final int[] STOP = new int[0];
+
+    private final ReviewTrace trace;
+    private final CalendarBackend backend;
+    private final int threads;
+    //Trace time per wall time: 1 replays in real time, 86400 a day a second. 0 replays as fast as possible.
+    private final double timeScale;
+    private final int maxPerDate;
+    private final Date cutoff;
+    private final long seed;
+
+    public TraceReplay(ReviewTrace trace, CalendarBackend backend, int threads, double timeScale, int maxPerDate, Date cutoff, long seed) {
+        if(threads <= 0 || timeScale < 0 || maxPerDate <= 0) throw new IllegalArgumentException();
+        this.trace = trace;
+        this.backend = backend;
+        this.threads = threads;
+        this.timeScale = timeScale;
+        this.maxPerDate = maxPerDate;
+        this.cutoff = cutoff;
+        this.seed = seed;
+    }
+
+    //One run of the trace.
+    private final class Replay {
+        private final CalendarRegistry registry = new CalendarRegistry(learner -> new PolicyCalendar(maxPerDate, cutoff, backend,
+                MonteCarloSimulation.ABANDON_POLICY, new SplittableRandom(ParameterSweep.derivedSeed(seed, learner))));
+        private final Histogram[] latencies = new Histogram[ReviewTrace.Op.values().length];
+        private final Histogram lag = new Histogram();
+        private final LongAdder emptySkips = new LongAdder();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private long start;
+
+        private Replay() {
+            for(int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Histogram();
+            }
+        }
+
+        //The time the event is due at, when paced.
+        private long due(int event) {
+            return start + (long) ((trace.millis(event) - trace.millis(0)) * 1e6 / timeScale);
+        }
+
+        //Waits until the event is due.
+        private void await(int event) throws InterruptedException {
+            long due = due(event);
+            long wait;
+            while((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+                if(Thread.interrupted()) throw new InterruptedException();
+            }
+        }
+
+        private void execute(int event) {
+            long learner = trace.learner(event);
+            Date date = new Date(trace.day(event));
+            ReviewTrace.Op op = trace.op(event);
+            long begin = System.nanoTime();
+            if(timeScale > 0) {
+                lag.record(begin - due(event));
+            }
+            switch(op) {
+                case ADD -> registry.addAllWithSpacing(learner, trace.lesson(event), date, trace.spacing(event));
+                case READ -> registry.getForDate(learner, date);
+                case SKIP -> {
+                    int keep = trace.keep(event);
+                    boolean skipped = registry.withCalendar(learner, calendar -> {
+                        if(calendar.count(date) <= keep) return false;
+                        calendar.skip(date, keep);
+                        return true;
+                    });
+                    if(!skipped) {
+                        emptySkips.increment();
+                    }
+                }
+            }
+            latencies[op.ordinal()].record(System.nanoTime() - begin);
+        }
+
+        private void work(BlockingQueue<int[]> queue) {
+            while(true) {
+                int[] batch;
+                try {
+                    batch = queue.take();
+                } catch(InterruptedException e) {
+                    return;
+                }
+                if(batch == STOP) return;
+                //After a failure the rest are drained unread, so the dispatcher never blocks on a full queue.
+                if(failure.get() != null) continue;
+                try {
+                    for(int event : batch) {
+                        execute(event);
+                    }
+                } catch(Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        }
+
+        private void runInline() throws InterruptedException {
+            for(int event = 0; event < trace.size(); event++) {
+                if(timeScale > 0) {
+                    await(event);
+                }
+                execute(event);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void runSharded() throws InterruptedException {
+            int count = Math.min(threads, registry.stripes());
+            BlockingQueue<int[]>[] queues = new BlockingQueue[count];
+            Thread[] workers = new Thread[count];
+            for(int w = 0; w < count; w++) {
+                BlockingQueue<int[]> queue = queues[w] = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                workers[w] = new Thread(() -> work(queue), "trace-replay-" + w);
+                workers[w].setDaemon(true);
+                workers[w].start();
+            }
+            int[][] pending = new int[count][BATCH_SIZE];
+            int[] filled = new int[count];
+            try {
+                for(int event = 0; event < trace.size() && failure.get() == null; event++) {
+                    //Everything already dispatched is handed over before waiting, so no event sits in a batch past its time.
+                    if(timeScale > 0 && due(event) > System.nanoTime()) {
+                        for(int w = 0; w < count; w++) {
+                            if(filled[w] > 0) {
+                                queues[w].put(Arrays.copyOf(pending[w], filled[w]));
+                                filled[w] = 0;
+                            }
+                        }
+                        await(event);
+                    }
+                    int w = registry.stripe(trace.learner(event)) % count;
+                    pending[w][filled[w]++] = event;
+                    if(filled[w] == BATCH_SIZE) {
+                        queues[w].put(pending[w]);
+                        pending[w] = new int[BATCH_SIZE];
+                        filled[w] = 0;
+                    }
+                }
+                for(int w = 0; w < count; w++) {
+                    if(filled[w] > 0) {
+                        queues[w].put(Arrays.copyOf(pending[w], filled[w]));
+                    }
+                    queues[w].put(STOP);
+                }
+            } catch(InterruptedException e) {
+                for(Thread worker : workers) {
+                    worker.interrupt();
+                }
+                throw e;
+            } finally {
+                for(Thread worker : workers) {
+                    worker.join();
+                }
+            }
+        }
+
+        private Report run() throws InterruptedException {
+            start = System.nanoTime();
+            if(threads == 1) {
+                runInline();
+            } else {
+                runSharded();
+            }
+            long elapsed = System.nanoTime() - start;
+            Throwable thrown = failure.get();
+            if(thrown instanceof RuntimeException e) throw e;
+            if(thrown instanceof Error e) throw e;
+            //{repetitions, days late, added, abandoned} over every learner.
+            long[] totals = new long[4];
+            registry.forEach(calendar -> {
+                Date earliest = calendar.earliestDate();
+                if(earliest != null) {
+                    MonteCarloSimulation.LateCounter late = new MonteCarloSimulation.LateCounter(calendar);
+                    calendar.forEachBetween(earliest, new Date(calendar.latestDate().datePoint() + 1), late);
+                    totals[0] += late.questions;
+                    totals[1] += late.daysLate;
+                }
+                totals[2] += calendar.getNumAdded();
+                totals[3] += calendar.getNumAbandoned();
+            });
+            return new Report(backend, threads, trace.size(), elapsed, latencies, lag, emptySkips.sum(), registry.size(),
+                    totals[0] == 0 ? 0 : (double) totals[1] / totals[0], totals[2] == 0 ? 0 : (double) totals[3] / totals[2]);
+        }
+    }
+
+    //Replays the whole trace into fresh calendars.
+    public Report run() throws InterruptedException {
+        return new Replay().run();
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e3);
+    }
+
+    private static String latencies(Histogram histogram) {
+        return "count=" + histogram.count() + " mean=" + micros((long) histogram.mean()) + " p50=" + micros(histogram.percentile(50))
+                + " p90=" + micros(histogram.percentile(90)) + " p99=" + micros(histogram.percentile(99)) + " p99.9="
+                + micros(histogram.percentile(99.9)) + " max=" + micros(histogram.max()) + " (us)";
+    }
+
+    public static void print(Report report) {
+        System.out.printf(Locale.ROOT, "%s threads=%d: %d events in %.3f s, %.0f events/s, %d learners%n", report.backend(), report.threads(),
+                report.events(), report.elapsedNanos() / 1e9, report.eventsPerSecond(), report.learners());
+        for(ReviewTrace.Op op : ReviewTrace.Op.values()) {
+            System.out.println("  " + op.name().toLowerCase(Locale.ROOT) + " " + latencies(report.latency(op)));
+        }
+        if(report.lag().count() > 0) {
+            System.out.println("  lag " + latencies(report.lag()));
+        }
+        System.out.printf(Locale.ROOT, "  %.3f days late on average, %.2f%% of repetitions abandoned, %d skips with nothing to skip%n",
+                report.averageLate(), report.abandonedPortion() * 100, report.emptySkips());
+    }
+
+    //Replays a trace. Arguments are key=value pairs; every key but trace is optional:
+    //  trace=<file> backend=HASHED,ARRAY threads=1 scale=0 maxPerDate=5 cutoff=<the trace's last day + 1> seed=0 repeat=1
+    //Every listed backend is replayed with every listed number of threads (threads=1,8 runs both), repeat times each, all on
+    //the same trace; the first runs also warm up the JIT, so compare the later ones. scale is trace time per wall time (3600
+    //replays an hour a second), and 0 replays as fast as possible.
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path path = null;
+        CalendarBackend[] backends = CalendarBackend.values();
+        int[] threadCounts = {1};
+        double timeScale = 0;
+        int maxPerDate = 5;
+        Integer cutoff = null;
+        long seed = 0;
+        int repeat = 1;
+        for(String arg : args) {
+            int eq = arg.indexOf('=');
+            if(eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            String value = arg.substring(eq + 1);
+            switch(arg.substring(0, eq)) {
+                case "trace" -> path = Path.of(value);
+                case "backend" -> backends = Arrays.stream(value.split(",")).map(b -> CalendarBackend.valueOf(b.trim().toUpperCase(Locale.ROOT)))
+                        .toArray(CalendarBackend[]::new);
+                case "threads" -> threadCounts = Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+                case "scale" -> timeScale = Double.parseDouble(value);
+                case "maxPerDate" -> maxPerDate = Integer.parseInt(value);
+                case "cutoff" -> cutoff = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "repeat" -> repeat = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown key " + arg.substring(0, eq));
+            }
+        }
+        if(path == null) throw new IllegalArgumentException("Missing trace=<file>");
+        ReviewTrace trace = ReviewTrace.read(path);
+        Date cutoffDate = new Date(cutoff == null ? trace.lastDay() + 1 : cutoff);
+        System.out.printf(Locale.ROOT, "%s: %d events over %.1f days%n", path, trace.size(), trace.durationMillis() / 86_400_000.0);
+        for(CalendarBackend backend : backends) {
+            for(int threads : threadCounts) {
+                for(int r = 0; r < repeat; r++) {
+                    print(new TraceReplay(trace, backend, threads, timeScale, maxPerDate, cutoffDate, seed).run());
+                }
+            }
+        }
+    }
+}
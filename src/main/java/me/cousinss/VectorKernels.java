@@ -0,0 +1,76 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+//FloatStatistics' kernels on the Vector API, one 256-bit vector (LANES floats) per chunk. The width is fixed rather than the
+//platform's preferred one so that the order of additions, and so the results, match ScalarKernels exactly. Only loaded when
+//the jdk.incubator.vector module is present.
+final class VectorKernels implements FloatStatistics.Kernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_256;
+
+    static {
+        if(SPECIES.length() != LANES) throw new AssertionError();
+    }
+
+    @Override
+    public double sum(float[] values, int from, int to) {
+        float[] lanes = new float[LANES];
+        double total = 0;
+        for(int block = from; block < to; block += BLOCK) {
+            int end = Math.min(to, block + BLOCK);
+            FloatVector sum = FloatVector.zero(SPECIES);
+            for(int i = block; i < end; i += LANES) {
+                sum = sum.add(FloatVector.fromArray(SPECIES, values, i));
+            }
+            sum.intoArray(lanes, 0);
+            total += FloatStatistics.fold(lanes);
+        }
+        return total;
+    }
+
+    @Override
+    public double sumOfSquares(float[] values, int from, int to, float center) {
+        float[] lanes = new float[LANES];
+        FloatVector centers = FloatVector.broadcast(SPECIES, center);
+        double total = 0;
+        for(int block = from; block < to; block += BLOCK) {
+            int end = Math.min(to, block + BLOCK);
+            FloatVector sum = FloatVector.zero(SPECIES);
+            for(int i = block; i < end; i += LANES) {
+                FloatVector d = FloatVector.fromArray(SPECIES, values, i).sub(centers);
+                //Multiply then add, not fused, to round as the scalar kernel does.
+                sum = sum.add(d.mul(d));
+            }
+            sum.intoArray(lanes, 0);
+            total += FloatStatistics.fold(lanes);
+        }
+        return total;
+    }
+
+    @Override
+    public float min(float[] values, int from, int to) {
+        FloatVector min = FloatVector.broadcast(SPECIES, Float.POSITIVE_INFINITY);
+        for(int i = from; i < to; i += LANES) {
+            min = min.min(FloatVector.fromArray(SPECIES, values, i));
+        }
+        return min.reduceLanes(VectorOperators.MIN);
+    }
+
+    @Override
+    public float max(float[] values, int from, int to) {
+        FloatVector max = FloatVector.broadcast(SPECIES, Float.NEGATIVE_INFINITY);
+        for(int i = from; i < to; i += LANES) {
+            max = max.max(FloatVector.fromArray(SPECIES, values, i));
+        }
+        return max.reduceLanes(VectorOperators.MAX);
+    }
+}
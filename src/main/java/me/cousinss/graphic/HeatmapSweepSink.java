@@ -0,0 +1,48 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.graphic;
+
+import me.cousinss.ParameterSweep;
+import me.cousinss.SweepSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+//Renders a sweep's SweepHeatmap to a PNG or SVG file (by extension) with no display. The file is rewritten as cells arrive, at
+//most once per interval, and once more on close, so a long headless sweep can be watched as it goes.
+public class HeatmapSweepSink implements SweepSink {
+
+    private final SweepHeatmap heatmap;
+    private final Path path;
+    private final long intervalNanos;
+    private long lastWrite = System.nanoTime();
+
+    public HeatmapSweepSink(ParameterSweep sweep, Path path) {
+        this(sweep, path, Duration.ofSeconds(10));
+    }
+
+    public HeatmapSweepSink(ParameterSweep sweep, Path path, Duration interval) {
+        this.heatmap = new SweepHeatmap(sweep);
+        this.path = path;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    @Override
+    public void accept(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) throws IOException {
+        heatmap.set(cell, late, abandoned);
+        if(System.nanoTime() - lastWrite >= intervalNanos) {
+            heatmap.write(path);
+            lastWrite = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        heatmap.write(path);
+    }
+}
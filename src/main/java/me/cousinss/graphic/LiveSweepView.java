@@ -0,0 +1,119 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.graphic;
+
+import me.cousinss.ParameterSweep;
+import me.cousinss.SweepSink;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.reflect.InvocationTargetException;
+
+//Shows a sweep's SweepHeatmap in a window whose cells fill in as each one finishes, in whatever order the sweep's threads
+//finish them, with a progress count and a Stop button. Stopping, or closing the window, ends the sweep once the cells
+//already running are done. The window stays open after the sweep ends.
+//Swing components must only be touched on the event dispatch thread, so the view is made there, by open.
+public class LiveSweepView implements SweepSink {
+
+    //How often the window picks up newly finished cells.
+    private static final int REFRESH_MILLIS = 250;
+
+    private final SweepHeatmap heatmap;
+    private final JFrame frame;
+    private final JLabel status;
+    private final JComponent canvas;
+    private final Timer refresh;
+    private volatile boolean stopped;
+
+    private LiveSweepView(ParameterSweep sweep, String title) {
+        heatmap = new SweepHeatmap(sweep);
+        frame = new JFrame(title);
+        canvas = new JComponent() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                heatmap.paint((Graphics2D) g);
+            }
+        };
+        canvas.setPreferredSize(new Dimension(heatmap.getWidth(), heatmap.getHeight()));
+        status = new JLabel();
+        JButton stop = new JButton("Stop");
+        stop.addActionListener(e -> {
+            stopped = true;
+            stop.setEnabled(false);
+        });
+        JPanel bar = new JPanel(new BorderLayout());
+        bar.add(status, BorderLayout.CENTER);
+        bar.add(stop, BorderLayout.EAST);
+        frame.add(new JScrollPane(canvas), BorderLayout.CENTER);
+        frame.add(bar, BorderLayout.SOUTH);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                stopped = true;
+            }
+        });
+        refresh = new Timer(REFRESH_MILLIS, e -> update("Running"));
+    }
+
+    //Builds and shows the window on the event dispatch thread, waiting until it is up.
+    public static LiveSweepView open(ParameterSweep sweep, String title) {
+        LiveSweepView[] view = new LiveSweepView[1];
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                view[0] = new LiveSweepView(sweep, title);
+                view[0].show();
+            });
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while opening the window", e);
+        } catch(InvocationTargetException e) {
+            if(e.getCause() instanceof RuntimeException cause) throw cause;
+            if(e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+        return view[0];
+    }
+
+    private void show() {
+        update("Running");
+        frame.pack();
+        frame.setLocation(150, 150);
+        frame.setVisible(true);
+        refresh.start();
+    }
+
+    private void update(String state) {
+        status.setText(" " + (stopped && state.equals("Running") ? "Stopping" : state) + ": " + heatmap.finished() + " of "
+                + heatmap.size() + " cells");
+        canvas.repaint();
+    }
+
+    @Override
+    public void completed(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) {
+        heatmap.set(cell, late, abandoned);
+    }
+
+    //Every cell was already shown as it completed.
+    @Override
+    public void accept(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) {}
+
+    @Override
+    public boolean stopped() {
+        return stopped;
+    }
+
+    @Override
+    public void close() {
+        SwingUtilities.invokeLater(() -> {
+            refresh.stop();
+            update(stopped ? "Stopped" : "Done");
+        });
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss.graphic;
+
+import me.cousinss.ParameterSweep;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Locale;
+
+//The results of a ParameterSweep laid out as GraphicDemo's table, one plane per (schedule, maxPerDate, cutoff, feedProp), each
+//with a row per skipChance and a column per feedChance. A cell shows its average days late and the portion of questions kept,
+//shaded by days late, and stays blank until it is set. It may be set from the sweep's threads while it is being drawn, and
+//draws onto any Graphics2D, so it renders offscreen to a PNG without a display, or as an SVG document.
+public class SweepHeatmap {
+
+    //The most cells drawn; larger sweeps belong in a CSV.
+    public static final int MAX_CELLS = 1 << 16;
+
+    private static final int CELL_WIDTH = 84;
+    private static final int CELL_HEIGHT = 22;
+    private static final int HEADER_WIDTH = 56;
+    private static final int TITLE_HEIGHT = 26;
+    private static final Color PENDING = new Color(235, 235, 235);
+    private static final Color GRID = new Color(200, 200, 200);
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+
+    //Where a layout is drawn: to a Graphics2D or into SVG.
+    private interface Canvas {
+        void fill(int x, int y, int width, int height, Color color);
+
+        //Draws the text centered on (x, y).
+        void text(String text, int x, int y);
+    }
+
+    private final ParameterSweep sweep;
+    private final float[] feedChances;
+    private final float[] skipChances;
+    private final int planes;
+    //Indexed by cell; NaN until set.
+    private final float[] late;
+    private final float[] abandoned;
+    private int finished;
+
+    public SweepHeatmap(ParameterSweep sweep) {
+        if(sweep.size() > MAX_CELLS) throw new IllegalArgumentException("Too many cells to draw: " + sweep.size());
+        this.sweep = sweep;
+        this.feedChances = sweep.feedChances();
+        this.skipChances = sweep.skipChances();
+        this.planes = (int) (sweep.size() / ((long) feedChances.length * skipChances.length));
+        this.late = new float[(int) sweep.size()];
+        this.abandoned = new float[late.length];
+        Arrays.fill(late, Float.NaN);
+        Arrays.fill(abandoned, Float.NaN);
+    }
+
+    public synchronized void set(ParameterSweep.Cell cell, ParameterSweep.Summary late, ParameterSweep.Summary abandoned) {
+        int index = (int) cell.index();
+        if(Float.isNaN(this.late[index])) {
+            finished++;
+        }
+        this.late[index] = late.mean();
+        this.abandoned[index] = abandoned.mean();
+    }
+
+    public int size() {
+        return late.length;
+    }
+
+    public synchronized int finished() {
+        return finished;
+    }
+
+    public int getWidth() {
+        return HEADER_WIDTH + feedChances.length * CELL_WIDTH;
+    }
+
+    public int getHeight() {
+        return planes * (TITLE_HEIGHT + (skipChances.length + 1) * CELL_HEIGHT);
+    }
+
+    private static String percent(float value) {
+        NumberFormat percentFormatter = NumberFormat.getPercentInstance(Locale.ROOT);
+        percentFormatter.setMaximumFractionDigits(0);
+        return percentFormatter.format(value);
+    }
+
+    private synchronized void layout(Canvas canvas) {
+        canvas.fill(0, 0, getWidth(), getHeight(), Color.WHITE);
+        int perPlane = feedChances.length * skipChances.length;
+        int top = 0;
+        for(int plane = 0; plane < planes; plane++) {
+            ParameterSweep.Cell first = sweep.cell((long) plane * perPlane);
+            canvas.text("schedule " + first.schedule() + ", " + first.maxPerDate() + "/day, " + first.cutoff() + " days, feedProp "
+                    + String.format(Locale.ROOT, "%.2f", first.feedProp()), getWidth() / 2, top + TITLE_HEIGHT / 2);
+            top += TITLE_HEIGHT;
+            canvas.fill(0, top, getWidth(), CELL_HEIGHT, GRID);
+            for(int c = 0; c < feedChances.length; c++) {
+                canvas.text((c == 0 ? "F: " : "") + percent(feedChances[c]), HEADER_WIDTH + c * CELL_WIDTH + CELL_WIDTH / 2, top + CELL_HEIGHT / 2);
+            }
+            for(int r = 0; r < skipChances.length; r++) {
+                int y = top + (r + 1) * CELL_HEIGHT;
+                canvas.fill(0, y, HEADER_WIDTH, CELL_HEIGHT, GRID);
+                canvas.text((r == 0 ? "S: " : "") + percent(skipChances[r]), HEADER_WIDTH / 2, y + CELL_HEIGHT / 2);
+                for(int c = 0; c < feedChances.length; c++) {
+                    //skipChance varies fastest in the sweep's cell order.
+                    int index = plane * perPlane + c * skipChances.length + r;
+                    int x = HEADER_WIDTH + c * CELL_WIDTH;
+                    if(Float.isNaN(late[index])) {
+                        canvas.fill(x + 1, y + 1, CELL_WIDTH - 1, CELL_HEIGHT - 1, PENDING);
+                        continue;
+                    }
+                    canvas.fill(x + 1, y + 1, CELL_WIDTH - 1, CELL_HEIGHT - 1, GraphicDemo.getGradientColor(Color.RED, late[index] / 20f));
+                    canvas.text(String.format(Locale.ROOT, "%.2f", late[index]) + "d, " + percent(1f - abandoned[index]), x + CELL_WIDTH / 2,
+                            y + CELL_HEIGHT / 2);
+                }
+            }
+            top += (skipChances.length + 1) * CELL_HEIGHT;
+        }
+    }
+
+    public void paint(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        layout(new Canvas() {
+            @Override
+            public void fill(int x, int y, int width, int height, Color color) {
+                g.setColor(color);
+                g.fillRect(x, y, width, height);
+            }
+
+            @Override
+            public void text(String text, int x, int y) {
+                g.setColor(Color.BLACK);
+                g.drawString(text, x - metrics.stringWidth(text) / 2, y + (metrics.getAscent() - metrics.getDescent()) / 2);
+            }
+        });
+    }
+
+    //Draws into an offscreen image, which needs no display.
+    public BufferedImage render() {
+        BufferedImage image = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            paint(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    public void writeSvg(Writer out) throws IOException {
+        StringBuilder svg = new StringBuilder();
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(getWidth()).append("\" height=\"").append(getHeight())
+                .append("\" font-family=\"sans-serif\" font-size=\"12\" text-anchor=\"middle\" dominant-baseline=\"central\">\n");
+        layout(new Canvas() {
+            @Override
+            public void fill(int x, int y, int width, int height, Color color) {
+                svg.append("<rect x=\"").append(x).append("\" y=\"").append(y).append("\" width=\"").append(width).append("\" height=\"")
+                        .append(height).append("\" fill=\"").append(String.format("#%06x", color.getRGB() & 0xFFFFFF)).append("\"/>\n");
+            }
+
+            @Override
+            public void text(String text, int x, int y) {
+                //The labels are numbers, percentages and parameter names, so there is nothing to escape but '&' and '<'.
+                svg.append("<text x=\"").append(x).append("\" y=\"").append(y).append("\">")
+                        .append(text.replace("&", "&amp;").replace("<", "&lt;")).append("</text>\n");
+            }
+        });
+        svg.append("</svg>\n");
+        out.write(svg.toString());
+    }
+
+    //Writes a PNG, or an SVG if the path ends in .svg, to a temporary file that then replaces the path, so anything watching
+    //the file never sees it half written.
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if(path.toString().endsWith(".svg")) {
+                try(Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                    writeSvg(out);
+                }
+            } else if(!ImageIO.write(render(), "png", temporary.toFile())) {
+                throw new IOException("No PNG writer");
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
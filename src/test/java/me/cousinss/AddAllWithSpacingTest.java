@@ -0,0 +1,133 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//addAllWithSpacing places a whole lesson and repairs once, and must leave a calendar exactly as adding the questions one at
+//a time would wherever its constructor says so: SORTED days, an abandonRepair that depends only on its arguments, and either
+//nothing abandoned or no repetition pushed off a day as a duplicate. The lessons are posted at mixed bases (earlier and
+//later than the day) and are large enough to overflow their days, on both backends, eager and lazy; those that are never
+//abandoned also hold the same question twice or questions already on the calendar.
+class AddAllWithSpacingTest {
+
+    private static final int SEEDS = 100;
+
+    //Posts the seed's lessons to the calendar, one call per lesson if batched, and returns every day it ends up with. Without
+    //repeats, every question is new and the schedules are SPARSE, so that only the overflow itself can push a repetition onto
+    //another of the same question.
+    private static String post(ReviewCalendar calendar, long seed, boolean batched, boolean repeats) {
+        Random random = new Random(seed);
+        IdAllocator ids = new IdAllocator(0);
+        List<Question> questions = new ArrayList<>();
+        int lessons = 5 + random.nextInt(15);
+        for(int lessonID = 0; lessonID < lessons; lessonID++) {
+            List<Question> lesson = new ArrayList<>();
+            int size = 1 + random.nextInt(12);
+            for(int i = 0; i < size; i++) {
+                float kind = repeats ? random.nextFloat() : 1;
+                if(kind < 0.1f && !lesson.isEmpty()) {
+                    //The same question twice in the lesson.
+                    lesson.add(lesson.get(random.nextInt(lesson.size())));
+                } else if(kind < 0.25f && !questions.isEmpty()) {
+                    //A question already on the calendar, added again.
+                    lesson.add(questions.get(random.nextInt(questions.size())));
+                } else {
+                    Question question = new Question("Q" + questions.size(), lessonID, ids);
+                    questions.add(question);
+                    lesson.add(question);
+                }
+            }
+            Date basis = new Date(random.nextInt(40) - 5);
+            SpacedRepetition[] schedules = repeats ? Workload.CROWDED : Workload.SPARSE;
+            SpacedRepetition schedule = schedules[random.nextInt(schedules.length)];
+            if(batched) {
+                calendar.addAllWithSpacing(lesson, basis, schedule);
+            } else {
+                for(Question question : lesson) {
+                    calendar.addWithSpacing(question, basis, schedule);
+                }
+            }
+        }
+        StringBuilder days = new StringBuilder();
+        for(int day = -5; day < 120; day++) {
+            days.append(day).append(':');
+            for(SpacedQuestion question : calendar.getForDate(new Date(day))) {
+                days.append(' ').append(question.getId()).append('/').append(question.getSpaceID());
+            }
+            days.append('\n');
+        }
+        return days.toString();
+    }
+
+    //Posts the seed's lessons both ways, returning whether neither pushed off a duplicate; if that or never abandoning holds,
+    //checks that they agree on every day.
+    private static boolean check(long seed, Workload.Policy policy, CalendarBackend backend, boolean lazy, boolean repeats) {
+        int maxPerDate = 1 + (int) (seed % 6);
+        int cutoff = 30 + (int) (seed % 5) * 10;
+        ReviewCalendar sequential = Workload.calendar(maxPerDate, cutoff, backend, DayOrder.SORTED, lazy, policy, seed);
+        ReviewCalendar batched = Workload.calendar(maxPerDate, cutoff, backend, DayOrder.SORTED, lazy, policy, seed);
+        CalendarMetrics sequentialMetrics = new CalendarMetrics();
+        CalendarMetrics batchedMetrics = new CalendarMetrics();
+        sequential.setMetrics(sequentialMetrics);
+        batched.setMetrics(batchedMetrics);
+        String sequentialDays = post(sequential, seed, false, repeats);
+        String batchedDays = post(batched, seed, true, repeats);
+        boolean noDuplicates = sequentialMetrics.get(CalendarMetrics.Counter.DUPLICATES) == 0
+                && batchedMetrics.get(CalendarMetrics.Counter.DUPLICATES) == 0;
+        if(policy == Workload.Policy.NEVER || noDuplicates) {
+            String run = "seed " + seed + ", " + policy + ", " + backend + (lazy ? ", lazy" : "");
+            assertEquals(sequentialDays, batchedDays, run);
+            assertEquals(sequential.getNumAdded(), batched.getNumAdded(), run);
+            assertEquals(sequential.getNumAbandoned(), batched.getNumAbandoned(), run);
+        }
+        return noDuplicates;
+    }
+
+    @Test
+    void matchesSequentialAddsWhenNothingIsAbandoned() {
+        for(long seed = 0; seed < SEEDS; seed++) {
+            for(CalendarBackend backend : CalendarBackend.values()) {
+                for(boolean lazy : new boolean[] {false, true}) {
+                    check(seed, Workload.Policy.NEVER, backend, lazy, true);
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesSequentialAddsWhenNoDuplicateIsPushedOff() {
+        int checked = 0;
+        for(long seed = 0; seed < SEEDS; seed++) {
+            for(CalendarBackend backend : CalendarBackend.values()) {
+                for(boolean lazy : new boolean[] {false, true}) {
+                    if(check(seed, Workload.Policy.ARGUMENTS, backend, lazy, false)) {
+                        checked++;
+                    }
+                }
+            }
+        }
+        assertTrue(checked > SEEDS, "only " + checked + " runs pushed off no duplicates");
+    }
+
+    @Test
+    void recordsOneSamplePerLesson() {
+        ReviewCalendar calendar = Workload.calendar(3, 60, CalendarBackend.ARRAY, DayOrder.HEAP, false, Workload.Policy.NEVER, 0);
+        CalendarMetrics metrics = new CalendarMetrics();
+        calendar.setMetrics(metrics);
+        post(calendar, 1, true, true);
+        assertEquals(0, metrics.get(CalendarMetrics.Distribution.ADD_NANOS).count());
+        assertTrue(metrics.get(CalendarMetrics.Distribution.ADD_ALL_NANOS).count() > 0);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//A calendar read back from a snapshot must hold the same days, in the same order, with the same counts, bases and pending
+//repetitions, and go on to behave exactly as the original does.
+class CalendarSnapshotTest {
+
+    private static final int SEEDS = 20;
+
+    private static ReviewCalendar restore(ReviewCalendar from, ReviewCalendar into, List<? extends SpacedRepetition> known)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CalendarSnapshot.write(from, Channels.newChannel(bytes));
+        CalendarSnapshot.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), into, known);
+        return into;
+    }
+
+    private static String days(ReviewCalendar calendar, int from, int to) {
+        StringBuilder days = new StringBuilder();
+        for(int day = from; day < to; day++) {
+            days.append(day).append(':');
+            for(SpacedQuestion question : calendar.getForDate(new Date(day))) {
+                days.append(' ').append(question.getId()).append('/').append(question.getSpaceID());
+            }
+            days.append('\n');
+        }
+        return days.toString();
+    }
+
+    //The days the calendar has a bucket for, emptied ones included.
+    private static List<Integer> held(ReviewCalendar calendar) {
+        List<Integer> days = new ArrayList<>();
+        calendar.forEachDay(days::add);
+        days.sort(null);
+        return days;
+    }
+
+    private static void assertSameCalendar(ReviewCalendar expected, ReviewCalendar actual, int to, String run) {
+        assertEquals(days(expected, -5, to), days(actual, -5, to), run);
+        assertEquals(held(expected), held(actual), run);
+        assertEquals(expected.getNumAdded(), actual.getNumAdded(), run);
+        assertEquals(expected.getNumAbandoned(), actual.getNumAbandoned(), run);
+    }
+
+    @Test
+    void roundTripsEagerCalendars() throws IOException {
+        List<SpacedRepetition> known = Arrays.asList(Workload.CROWDED);
+        for(long seed = 0; seed < SEEDS; seed++) {
+            int maxPerDate = 1 + (int) (seed % 5);
+            int days = 30 + (int) (seed % 40);
+            int cutoff = days + 20;
+            for(CalendarBackend backend : CalendarBackend.values()) {
+                for(DayOrder order : DayOrder.values()) {
+                    String run = "seed " + seed + ", " + backend + ", " + order;
+                    Workload workload = new Workload(seed, days, maxPerDate, Workload.CROWDED, 0.1f, false);
+                    ReviewCalendar original = Workload.calendar(maxPerDate, cutoff, backend, order, false,
+                            Workload.Policy.ARGUMENTS, seed);
+                    workload.run(Workload.target(original));
+                    ReviewCalendar restored = restore(original, Workload.calendar(maxPerDate, cutoff, backend, order, false,
+                            Workload.Policy.ARGUMENTS, seed), known);
+                    assertSameCalendar(original, restored, days + 60, run);
+                    original.forEachBasis((question, basis) -> assertEquals(basis, restored.indexBasis(question), run));
+                    for(int day = 0; day < days + 60; day++) {
+                        for(SpacedQuestion question : restored.getForDate(new Date(day))) {
+                            assertTrue(known.contains(question.getRepetition()), run);
+                        }
+                    }
+
+                    //Both go on the same way: a HEAP day only does if its heap was rebuilt exactly.
+                    IdAllocator ids = new IdAllocator(1 << 20);
+                    List<Question> lesson = new ArrayList<>();
+                    for(int i = 0; i < 2 * maxPerDate; i++) {
+                        lesson.add(new Question("More " + i, -1, ids));
+                    }
+                    for(ReviewCalendar calendar : List.of(original, restored)) {
+                        calendar.addAllWithSpacing(lesson, new Date(days / 2), Workload.CROWDED[0]);
+                        for(int day = days / 2; day < days; day++) {
+                            int count = calendar.count(new Date(day));
+                            if(count > 1) {
+                                calendar.skip(new Date(day), count / 2);
+                            }
+                        }
+                    }
+                    assertSameCalendar(original, restored, days + 60, run);
+                }
+            }
+        }
+    }
+
+    @Test
+    void roundTripsPendingRepetitions() throws IOException {
+        for(long seed = 0; seed < SEEDS; seed++) {
+            for(CalendarBackend backend : CalendarBackend.values()) {
+                String run = "seed " + seed + ", " + backend;
+                Random random = new Random(seed);
+                ReviewCalendar original = Workload.calendar(3, 100, backend, DayOrder.SORTED, true, Workload.Policy.ARGUMENTS, seed);
+                IdAllocator ids = new IdAllocator(0);
+                for(int lessonID = 0; lessonID < 8; lessonID++) {
+                    List<Question> lesson = new ArrayList<>();
+                    int size = 1 + random.nextInt(6);
+                    for(int i = 0; i < size; i++) {
+                        lesson.add(new Question("Q" + lessonID + "." + i, lessonID, ids));
+                    }
+                    original.addAllWithSpacing(lesson, new Date(random.nextInt(12)), Workload.SPARSE[random.nextInt(2)]);
+                }
+                //Only the first days are placed; the rest of every schedule is still pending.
+                days(original, 0, 15);
+                ReviewCalendar restored = restore(original, Workload.calendar(3, 100, backend, DayOrder.SORTED, true,
+                        Workload.Policy.ARGUMENTS, seed), Arrays.asList(Workload.SPARSE));
+                assertEquals(original.getMaterialized(), restored.getMaterialized(), run);
+                assertSameCalendar(original, restored, 160, run);
+            }
+        }
+    }
+
+    @Test
+    void writesProceduralSchedulesOnlyAsFarAsTheCalendarHolds() throws IOException {
+        //Daily forever, to a cutoff too far off to write every repetition before it.
+        SpacedRepetition daily = n -> new Date(n);
+        int cutoff = 1 << 30;
+        for(CalendarBackend backend : CalendarBackend.values()) {
+            //Room for every question every day, as anything pushed on would cascade all the way to the cutoff.
+            ReviewCalendar original = Workload.calendar(12, cutoff, backend, DayOrder.SORTED, true, Workload.Policy.NEVER, 0);
+            IdAllocator ids = new IdAllocator(0);
+            for(int lessonID = 0; lessonID < 4; lessonID++) {
+                List<Question> lesson = new ArrayList<>();
+                for(int i = 0; i < 3; i++) {
+                    lesson.add(new Question("Q" + lessonID + "." + i, lessonID, ids));
+                }
+                original.addAllWithSpacing(lesson, new Date(lessonID * 2), daily);
+            }
+            days(original, 0, 20);
+            ReviewCalendar restored = restore(original, Workload.calendar(12, cutoff, backend, DayOrder.SORTED, true,
+                    Workload.Policy.NEVER, 0), List.of(daily));
+            assertSameCalendar(original, restored, 80, backend.name());
+        }
+    }
+
+    @Test
+    void roundTripsAdaptiveSchedules() throws IOException {
+        for(long seed = 0; seed < SEEDS; seed++) {
+            for(CalendarBackend backend : CalendarBackend.values()) {
+                String run = "seed " + seed + ", " + backend;
+                ReviewCalendar original = Workload.calendar(4, 200, backend, DayOrder.HEAP, false, Workload.Policy.NEVER, seed);
+                IdAllocator ids = new IdAllocator(0);
+                for(int i = 0; i < 12; i++) {
+                    original.addWithSpacing(new Question("Q" + i, i / 4, ids), new Date(i / 3), new AdaptiveSpacedRepetition());
+                }
+                review(original, new Random(seed), 0, 20);
+                ReviewCalendar restored = restore(original, Workload.calendar(4, 200, backend, DayOrder.HEAP, false,
+                        Workload.Policy.NEVER, seed), List.of());
+                assertSameCalendar(original, restored, 200, run);
+                //The restored schedules are copies of the originals, in the same state.
+                for(int day = 0; day < 200; day++) {
+                    List<SpacedQuestion> expected = new ArrayList<>(original.getForDate(new Date(day)));
+                    List<SpacedQuestion> actual = new ArrayList<>(restored.getForDate(new Date(day)));
+                    for(int i = 0; i < actual.size(); i++) {
+                        AdaptiveSpacedRepetition from = (AdaptiveSpacedRepetition) expected.get(i).getRepetition();
+                        AdaptiveSpacedRepetition to = (AdaptiveSpacedRepetition) actual.get(i).getRepetition();
+                        assertNotSame(from, to, run);
+                        assertEquals(from.scheduled(), to.scheduled(), run);
+                        assertEquals(from.getEase(), to.getEase(), run);
+                        assertEquals(from.getStreak(), to.getStreak(), run);
+                        assertEquals(from.getInterval(), to.getInterval(), run);
+                    }
+                }
+                //And carry on the same way.
+                review(original, new Random(seed + 1), 20, 60);
+                review(restored, new Random(seed + 1), 20, 60);
+                assertSameCalendar(original, restored, 200, run);
+            }
+        }
+    }
+
+    //Reviews every question due on the days, with random qualities.
+    private static void review(ReviewCalendar calendar, Random random, int from, int to) {
+        for(int day = from; day < to; day++) {
+            for(SpacedQuestion question : new ArrayList<>(calendar.getForDate(new Date(day)))) {
+                calendar.recordReview(question, new Date(day), random.nextInt(AdaptiveSpacedRepetition.MAX_QUALITY + 1));
+            }
+        }
+    }
+
+    @Test
+    void roundTripsThroughAFile(@TempDir Path directory) throws IOException {
+        Workload workload = new Workload(7, 60, 3, Workload.CROWDED, 0.1f, false);
+        ReviewCalendar original = Workload.calendar(3, 80, CalendarBackend.ARRAY, DayOrder.HEAP, false, Workload.Policy.ARGUMENTS, 7);
+        workload.run(Workload.target(original));
+        Path file = directory.resolve("calendar.snapshot");
+        try(FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            CalendarSnapshot.write(original, out);
+        }
+        ReviewCalendar restored = Workload.calendar(3, 80, CalendarBackend.ARRAY, DayOrder.HEAP, false, Workload.Policy.ARGUMENTS, 7);
+        try(FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            CalendarSnapshot.read(in, restored);
+        }
+        assertSameCalendar(original, restored, 120, "file");
+        //Without the schedules to resolve them to, static schedules come back as new, equal ones.
+        for(int day = 0; day < 120; day++) {
+            for(SpacedQuestion question : restored.getForDate(new Date(day))) {
+                assertTrue(Arrays.stream(Workload.CROWDED).noneMatch(schedule -> schedule == question.getRepetition()));
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+//The calendar as it was first written, kept as the reference for ReviewCalendar: a PriorityQueue per Date, and a repair
+//that scans every date the calendar holds, earliest first, then every date it pushes questions on to. The one change is
+//that duplicates are caught on insert, as ReviewCalendar catches them: of two repetitions of a question on a day, the one
+//with the smaller spaceID stays and the other is pushed on to the next day, and never abandoned. A lesson added at once is
+//placed whole and then repaired once, as ReviewCalendar.addAllWithSpacing does.
+final class FullScanCalendar implements Workload.Target {
+
+    private static final Date TOMORROW = new Date(1);
+
+    private final Map<Date, PriorityQueue<SpacedQuestion>> calendar = new HashMap<>();
+    private final Map<Question, Date> basisIndex = new HashMap<>();
+    private final int maxPerDate;
+    private final Date cutoff;
+    private final DayOrder order;
+    private final Workload.Policy policy;
+    private final Random random;
+    //The dates to repair, while a repair runs.
+    private List<Date> toCheck;
+    int numAdded;
+    int numAbandoned;
+
+    FullScanCalendar(int maxPerDate, int cutoff, DayOrder order, Workload.Policy policy, long seed) {
+        this.maxPerDate = maxPerDate;
+        this.cutoff = new Date(cutoff);
+        this.order = order;
+        this.policy = policy;
+        this.random = new Random(seed);
+    }
+
+    //Puts the repetition to delay first (the lowest-priority one) at the head of a day's queue.
+    private Comparator<SpacedQuestion> delayedFirst() {
+        Comparator<SpacedQuestion> bySpaceID = Comparator.comparingInt(SpacedQuestion::getSpaceID);
+        return (order == DayOrder.HEAP ? bySpaceID : bySpaceID.thenComparingInt(SpacedQuestion::getId)).reversed();
+    }
+
+    private int daysLate(SpacedQuestion question, Date date) {
+        return date.datePoint() - (basisIndex.get(question).datePoint() + question.getRepetition().offsetDays(question.getSpaceID()));
+    }
+
+    private void addToMap(Date date, SpacedQuestion question) {
+        while(question != null) {
+            PriorityQueue<SpacedQuestion> day = calendar.computeIfAbsent(date, d -> new PriorityQueue<>(delayedFirst()));
+            SpacedQuestion held = null;
+            for(SpacedQuestion q : day) {
+                if(q.equals(question)) {
+                    held = q;
+                    break;
+                }
+            }
+            SpacedQuestion kicked = null;
+            if(held != null && held.getSpaceID() <= question.getSpaceID()) {
+                kicked = question;
+            } else {
+                if(held != null) {
+                    day.remove(held);
+                    kicked = held;
+                }
+                day.add(question);
+                if(toCheck != null && !toCheck.get(toCheck.size() - 1).equals(date)) {
+                    toCheck.add(date);
+                }
+            }
+            question = kicked;
+            date = date.add(TOMORROW);
+        }
+    }
+
+    private void repair() {
+        toCheck = new ArrayList<>(calendar.keySet());
+        toCheck.sort(Date::compareTo);
+        if(toCheck.isEmpty()) {
+            toCheck = null;
+            return;
+        }
+        for(int i = 0; i < toCheck.size(); i++) {
+            Date date = toCheck.get(i);
+            PriorityQueue<SpacedQuestion> day = calendar.get(date);
+            while(day.size() > maxPerDate) {
+                SpacedQuestion last = day.peek();
+                if(policy.abandon(random, last, date, daysLate(last, date))) {
+                    day.remove();
+                    numAbandoned++;
+                } else {
+                    addToMap(date.add(TOMORROW), day.remove());
+                }
+            }
+        }
+        toCheck = null;
+    }
+
+    private void place(Question question, Date dateBasis, SpacedRepetition spacing) {
+        basisIndex.put(question, dateBasis);
+        int offset;
+        for(int spaceID = 0; (offset = spacing.offsetDays(spaceID)) != SpacedRepetition.NONE
+                && dateBasis.datePoint() + offset < cutoff.datePoint(); spaceID++) {
+            addToMap(new Date(dateBasis.datePoint() + offset), new SpacedQuestion(question, spaceID, spacing));
+            numAdded++;
+        }
+    }
+
+    @Override
+    public void addWithSpacing(Question question, Date dateBasis, SpacedRepetition spacing) {
+        place(question, dateBasis, spacing);
+        repair();
+    }
+
+    @Override
+    public void addAllWithSpacing(Collection<? extends Question> questions, Date dateBasis, SpacedRepetition spacing) {
+        for(Question question : questions) {
+            place(question, dateBasis, spacing);
+        }
+        repair();
+    }
+
+    @Override
+    public int count(Date date) {
+        PriorityQueue<SpacedQuestion> day = calendar.get(date);
+        return day == null ? 0 : day.size();
+    }
+
+    @Override
+    public void skip(Date date, int fromQuestion) {
+        PriorityQueue<SpacedQuestion> day = calendar.get(date);
+        if(day == null) throw new NoSuchElementException();
+        if(fromQuestion < 0 || fromQuestion >= day.size()) throw new IllegalArgumentException();
+        int toSkip = day.size() - fromQuestion;
+        for(int i = 0; i < toSkip; i++) {
+            addToMap(date.add(TOMORROW), day.remove());
+        }
+        repair();
+    }
+
+    @Override
+    public Collection<SpacedQuestion> getForDate(Date date) {
+        PriorityQueue<SpacedQuestion> day = calendar.get(date);
+        List<SpacedQuestion> questions = new ArrayList<>();
+        if(day == null) {
+            return questions;
+        }
+        if(order == DayOrder.HEAP) {
+            //Asked in reverse heap order.
+            questions.addAll(day);
+            Collections.reverse(questions);
+        } else {
+            questions.addAll(day);
+            questions.sort(delayedFirst().reversed());
+        }
+        return questions;
+    }
+}
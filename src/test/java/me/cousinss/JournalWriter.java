@@ -0,0 +1,38 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+//The child process of PersistentCalendarTest's kill test: opens the calendar in the directory and runs steps from one
+//number up to another (see PersistentCalendarTest.step), syncing every record and checkpointing now and then, and prints
+//"ack k" once the first k steps are durable. The test kills it with no warning part way through.
+//  args: directory, backend, first step, last step (exclusive)
+final class JournalWriter {
+
+    private static final int CHECKPOINT_EVERY = 25;
+
+    private JournalWriter() {}
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args[0]);
+        CalendarBackend backend = CalendarBackend.valueOf(args[1]);
+        int from = Integer.parseInt(args[2]);
+        int to = Integer.parseInt(args[3]);
+        try(PersistentCalendar calendar = PersistentCalendarTest.open(directory, backend, true)) {
+            for(int k = from; k < to; k++) {
+                PersistentCalendarTest.step(calendar, k);
+                System.out.println("ack " + (k + 1));
+                System.out.flush();
+                if((k + 1) % CHECKPOINT_EVERY == 0) {
+                    calendar.checkpoint();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//A lazy calendar must give the same days as an eager SORTED one under the conditions its constructor states: offsets that
+//never decrease, an abandonRepair that depends only on its arguments, and either nothing abandoned or no repetition pushed
+//off a day as a duplicate. The runs read days ahead as they go, so the lazy calendar places its days in many steps.
+class LazyCalendarTest {
+
+    private static final int SEEDS = 300;
+
+    //Runs the workload on an eager and a lazy calendar, returning whether they pushed off no duplicates; if that or never
+    //abandoning holds, checks that they agree on every day.
+    private static boolean check(long seed, SpacedRepetition[] schedules, float readdChance, Workload.Policy policy,
+                                 CalendarBackend backend) {
+        int maxPerDate = 1 + (int) (seed % 5);
+        int days = 30 + (int) (seed % 40);
+        int cutoff = days + (int) (seed % 7) * 5;
+        Workload workload = new Workload(seed, days, maxPerDate, schedules, readdChance, true);
+        ReviewCalendar eager = Workload.calendar(maxPerDate, cutoff, backend, DayOrder.SORTED, false, policy, seed);
+        ReviewCalendar lazy = Workload.calendar(maxPerDate, cutoff, backend, DayOrder.SORTED, true, policy, seed);
+        CalendarMetrics eagerMetrics = new CalendarMetrics();
+        CalendarMetrics lazyMetrics = new CalendarMetrics();
+        eager.setMetrics(eagerMetrics);
+        lazy.setMetrics(lazyMetrics);
+        String eagerDays = workload.run(Workload.target(eager));
+        String lazyDays = workload.run(Workload.target(lazy));
+        boolean noDuplicates = eagerMetrics.get(CalendarMetrics.Counter.DUPLICATES) == 0
+                && lazyMetrics.get(CalendarMetrics.Counter.DUPLICATES) == 0;
+        if(policy == Workload.Policy.NEVER || noDuplicates) {
+            String run = "seed " + seed + ", " + policy + ", " + backend;
+            assertEquals(eagerDays, lazyDays, run);
+            //Every day up to the cutoff has been read, so the lazy calendar has placed everything.
+            assertEquals(eager.getNumAdded(), lazy.getNumAdded(), run);
+            assertEquals(eager.getNumAbandoned(), lazy.getNumAbandoned(), run);
+        }
+        return noDuplicates;
+    }
+
+    @Test
+    void matchesEagerWhenNothingIsAbandoned() {
+        for(long seed = 0; seed < SEEDS; seed++) {
+            for(CalendarBackend backend : CalendarBackend.values()) {
+                check(seed, Workload.CROWDED, 0.1f, Workload.Policy.NEVER, backend);
+            }
+        }
+    }
+
+    @Test
+    void matchesEagerWhenNoDuplicateIsPushedOff() {
+        int checked = 0;
+        for(long seed = 0; seed < SEEDS; seed++) {
+            for(CalendarBackend backend : CalendarBackend.values()) {
+                if(check(seed, Workload.SPARSE, 0, Workload.Policy.ARGUMENTS, backend)) {
+                    checked++;
+                }
+            }
+        }
+        assertTrue(checked > SEEDS / 4, "only " + checked + " runs pushed off no duplicates");
+    }
+}
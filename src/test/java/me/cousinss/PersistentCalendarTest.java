@@ -0,0 +1,528 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+//A persistent calendar must come back from its directory exactly as it was after its last acknowledged operation: after a
+//clean close, after a kill -9 (in a child JVM, part way through appending or checkpointing), after a torn or corrupt
+//journal tail, and after a crash between writing a snapshot and emptying the journal. Each is checked against an ordinary
+//ReviewCalendar put through the same steps, which mix adds (static and adaptive), skips and reviews.
+class PersistentCalendarTest {
+
+    static final int MAX_PER_DATE = 3;
+    static final int CUTOFF = 120;
+    static final List<SpacedRepetition> SCHEDULES = Arrays.asList(Workload.CROWDED);
+    //The steps the kill test's reference runs to; no child runs past them.
+    private static final int STEPS = 600;
+
+    static PersistentCalendar open(Path directory, CalendarBackend backend, boolean sync) throws IOException {
+        return PersistentCalendar.open(new PersistentCalendar(directory, MAX_PER_DATE, new Date(CUTOFF), backend, SCHEDULES, sync) {
+            @Override
+            public boolean abandonRepair(SpacedQuestion question, Date date, int daysLate) {
+                return Workload.Policy.ARGUMENTS.abandon(null, question, date, daysLate);
+            }
+        });
+    }
+
+    private static ReviewCalendar reference(CalendarBackend backend) {
+        return Workload.calendar(MAX_PER_DATE, CUTOFF, backend, DayOrder.HEAP, false, Workload.Policy.ARGUMENTS, 0);
+    }
+
+    //Step k of every run, drawn from k alone so that a run can be resumed at any step: a lesson of new questions on a static
+    //schedule, a question on an adaptive schedule, a skip, or a review of an adaptive question due that day. Each step is
+    //one operation, so writes one record, and a crash can only lose whole steps; a step that finds nothing to skip or review
+    //leaves the calendar as it is, and writes nothing.
+    static void step(ReviewCalendar calendar, int k) {
+        Random random = new Random(k);
+        int today = k / 4;
+        int kind = random.nextInt(10);
+        if(kind < 4) {
+            List<Question> lesson = new ArrayList<>();
+            int size = 1 + random.nextInt(4);
+            for(int i = 0; i < size; i++) {
+                lesson.add(new Question("Q" + k + "." + i + (i == 0 ? " é" : ""), k, k * 8 + i));
+            }
+            Date basis = new Date(today + random.nextInt(3));
+            SpacedRepetition schedule = Workload.CROWDED[random.nextInt(Workload.CROWDED.length)];
+            if(size > 1) {
+                calendar.addAllWithSpacing(lesson, basis, schedule);
+            } else {
+                calendar.addWithSpacing(lesson.get(0), basis, schedule);
+            }
+        } else if(kind == 4) {
+            calendar.addWithSpacing(new Question("A" + k, k, k * 8), new Date(today), new AdaptiveSpacedRepetition());
+        } else if(kind < 7) {
+            Date date = new Date(today + random.nextInt(3));
+            int count = calendar.count(date);
+            if(count > 1) {
+                calendar.skip(date, random.nextInt(count));
+            }
+        } else {
+            int quality = random.nextInt(AdaptiveSpacedRepetition.MAX_QUALITY + 1);
+            for(SpacedQuestion question : calendar.getForDate(new Date(today))) {
+                if(question.getRepetition() instanceof AdaptiveSpacedRepetition) {
+                    calendar.recordReview(question, new Date(today), quality);
+                    return;
+                }
+            }
+        }
+    }
+
+    //Every day the calendar holds, in order, with its counters and the days it has a bucket for (emptied ones included).
+    static String state(ReviewCalendar calendar) {
+        StringBuilder state = new StringBuilder();
+        List<Integer> held = new ArrayList<>();
+        calendar.forEachDay(held::add);
+        held.sort(null);
+        state.append(held).append('\n');
+        for(int day = -2; day < CUTOFF + 80; day++) {
+            state.append(day).append(':');
+            for(SpacedQuestion question : calendar.getForDate(new Date(day))) {
+                state.append(' ').append(question.getId()).append('/').append(question.getSpaceID());
+            }
+            state.append('\n');
+        }
+        return state.append(calendar.getNumAdded()).append(' ').append(calendar.getNumAbandoned()).toString();
+    }
+
+    //The reference's state after each number of steps.
+    private static List<String> states(CalendarBackend backend, int steps) {
+        ReviewCalendar reference = reference(backend);
+        List<String> states = new ArrayList<>();
+        states.add(state(reference));
+        for(int k = 0; k < steps; k++) {
+            step(reference, k);
+            states.add(state(reference));
+        }
+        return states;
+    }
+
+    private static void run(ReviewCalendar calendar, int from, int to) {
+        for(int k = from; k < to; k++) {
+            step(calendar, k);
+        }
+    }
+
+    @Test
+    void reopensAsItWas(@TempDir Path directory) throws IOException {
+        for(CalendarBackend backend : CalendarBackend.values()) {
+            Path dir = directory.resolve(backend.name());
+            List<String> expected = states(backend, 300);
+            //Closed with everything in the journal, then with some in a snapshot, then right after a checkpoint.
+            try(PersistentCalendar calendar = open(dir, backend, false)) {
+                run(calendar, 0, 100);
+            }
+            try(PersistentCalendar calendar = open(dir, backend, false)) {
+                assertEquals(expected.get(100), state(calendar), backend.name());
+                run(calendar, 100, 150);
+                calendar.checkpoint();
+                run(calendar, 150, 200);
+            }
+            try(PersistentCalendar calendar = open(dir, backend, false)) {
+                assertEquals(expected.get(200), state(calendar), backend.name());
+                run(calendar, 200, 300);
+                calendar.checkpoint();
+            }
+            try(PersistentCalendar calendar = open(dir, backend, false)) {
+                assertEquals(expected.get(300), state(calendar), backend.name());
+            }
+        }
+    }
+
+    @Test
+    void reviewsReopenedAdaptiveSchedules(@TempDir Path directory) throws IOException {
+        //The reopened calendar's adaptive schedules are new instances, in the same state, which go on to schedule the same
+        //next repetitions.
+        List<String> expected = states(CalendarBackend.HASHED, 400);
+        int adaptive = 0;
+        for(int k = 0; k < 400; k += 40) {
+            try(PersistentCalendar calendar = open(directory, CalendarBackend.HASHED, true)) {
+                assertEquals(expected.get(k), state(calendar), "step " + k);
+                run(calendar, k, k + 40);
+                if(k % 80 == 0) {
+                    calendar.checkpoint();
+                }
+                for(int day = 0; day < CUTOFF; day++) {
+                    for(SpacedQuestion question : calendar.getForDate(new Date(day))) {
+                        if(question.getRepetition() instanceof AdaptiveSpacedRepetition) {
+                            adaptive++;
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(adaptive > 0, "no adaptive questions were held");
+    }
+
+    @Test
+    void nextQuestionIDIsPastEveryQuestion(@TempDir Path directory) throws IOException {
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.ARRAY, false)) {
+            run(calendar, 0, 60);
+            calendar.checkpoint();
+            run(calendar, 60, 80);
+        }
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.ARRAY, false)) {
+            int[] highest = {-1};
+            calendar.forEachBasis((question, basis) -> highest[0] = Math.max(highest[0], question.getId()));
+            assertEquals(highest[0] + 1, calendar.nextQuestionID());
+        }
+    }
+
+    @Test
+    void cutsOffATornOrCorruptRecord(@TempDir Path directory) throws IOException {
+        Random random = new Random(3);
+        for(int round = 0; round < 20; round++) {
+            Path dir = directory.resolve("round" + round);
+            Path file = dir.resolve("calendar.journal");
+            //The operation whose record is torn: one lesson, or one skip of a full day, each written as a single record.
+            int lessonID = 1000 + round;
+            Consumer<ReviewCalendar> last = round % 4 < 2
+                    ? calendar -> calendar.addAllWithSpacing(List.of(new Question("Torn", lessonID, lessonID * 8),
+                            new Question("Torn too", lessonID, lessonID * 8 + 1)), new Date(12), Workload.CROWDED[lessonID % 4])
+                    : calendar -> calendar.skip(new Date(12), 0);
+            String before;
+            String after;
+            long start;
+            try(PersistentCalendar calendar = open(dir, CalendarBackend.HASHED, false)) {
+                run(calendar, 0, 30);
+                calendar.checkpoint();
+                run(calendar, 30, 60 + round);
+                before = state(calendar);
+                start = Files.size(file);
+                last.accept(calendar);
+                after = state(calendar);
+            }
+            long end = Files.size(file);
+            if(round % 2 == 0) {
+                //Torn: the record was only part written.
+                try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(start + random.nextInt((int) (end - start)));
+                }
+            } else {
+                //Corrupt: the record is all there, but a bit of it is not what was written.
+                try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    ByteBuffer b = ByteBuffer.allocate(1);
+                    long at = start + random.nextInt((int) (end - start));
+                    channel.read(b, at);
+                    b.put(0, (byte) (b.get(0) ^ (1 << random.nextInt(8))));
+                    channel.write(b.rewind(), at);
+                }
+            }
+            try(PersistentCalendar calendar = open(dir, CalendarBackend.HASHED, false)) {
+                assertEquals(before, state(calendar), "round " + round);
+                assertEquals(start, Files.size(file), "round " + round);
+                //And the journal carries on from the cut.
+                last.accept(calendar);
+            }
+            try(PersistentCalendar calendar = open(dir, CalendarBackend.HASHED, false)) {
+                assertEquals(after, state(calendar), "round " + round);
+            }
+        }
+    }
+
+    @Test
+    void survivesACrashDuringACheckpoint(@TempDir Path directory) throws IOException {
+        List<String> expected = states(CalendarBackend.ARRAY, 160);
+        Path journal = directory.resolve("calendar.journal");
+        Path stale = directory.resolve("stale.journal");
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.ARRAY, true)) {
+            run(calendar, 0, 50);
+            calendar.checkpoint();
+            run(calendar, 50, 100);
+            Files.copy(journal, stale);
+            calendar.checkpoint();
+        }
+        //Crashed after the new snapshot replaced the old, but before the journal was emptied: the records the snapshot holds
+        //are skipped.
+        Files.copy(stale, journal, StandardCopyOption.REPLACE_EXISTING);
+        //Crashed while writing a snapshot: the half-written one is never read, and the next checkpoint replaces it.
+        Files.write(directory.resolve("calendar.snapshot.tmp"), "half a snapshot".getBytes(StandardCharsets.UTF_8));
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.ARRAY, true)) {
+            assertEquals(expected.get(100), state(calendar));
+            run(calendar, 100, 130);
+        }
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.ARRAY, true)) {
+            assertEquals(expected.get(130), state(calendar));
+            calendar.checkpoint();
+            run(calendar, 130, 160);
+        }
+        assertTrue(Files.notExists(directory.resolve("calendar.snapshot.tmp")));
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.ARRAY, true)) {
+            assertEquals(expected.get(160), state(calendar));
+        }
+    }
+
+    @Test
+    void forksAreNotPersisted(@TempDir Path directory) throws IOException {
+        List<String> expected = states(CalendarBackend.HASHED, 120);
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.HASHED, false)) {
+            run(calendar, 0, 80);
+            PersistentCalendar fork = calendar.fork();
+            run(fork, 80, 120);
+            assertEquals(expected.get(120), state(fork));
+            assertThrows(IllegalStateException.class, fork::checkpoint);
+            fork.close();
+            assertEquals(expected.get(80), state(calendar));
+            run(calendar, 80, 100);
+        }
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.HASHED, false)) {
+            assertEquals(expected.get(100), state(calendar));
+        }
+    }
+
+    //A journal whose writes can be made to fail part way through a record, as on a full disk, and whose truncates can be
+    //made to fail too.
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel channel;
+        boolean failWrites;
+        boolean failTruncates;
+
+        FailingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if(failWrites) {
+                ByteBuffer half = src.slice(src.position(), src.remaining() / 2);
+                src.position(src.position() + channel.write(half));
+                throw new IOException("No space left on device");
+            }
+            return channel.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if(failTruncates) throw new IOException("Input/output error");
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            if(failWrites) throw new IOException("No space left on device");
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class FailingCalendar extends PersistentCalendar {
+        FailingChannel journal;
+
+        FailingCalendar(Path directory) {
+            super(directory, MAX_PER_DATE, new Date(CUTOFF), CalendarBackend.HASHED, SCHEDULES, false);
+        }
+
+        @Override
+        public boolean abandonRepair(SpacedQuestion question, Date date, int daysLate) {
+            return Workload.Policy.ARGUMENTS.abandon(null, question, date, daysLate);
+        }
+
+        @Override
+        FileChannel openJournal(Path path) throws IOException {
+            return journal = new FailingChannel(super.openJournal(path));
+        }
+    }
+
+    //Runs the next step that writes a record, with writes failing, and returns the step.
+    private static int failStep(FailingCalendar calendar, int from) {
+        for(int k = from; ; k++) {
+            String before = state(calendar);
+            calendar.journal.failWrites = true;
+            try {
+                step(calendar, k);
+            } catch(UncheckedIOException e) {
+                return k;
+            } finally {
+                calendar.journal.failWrites = false;
+            }
+            assertEquals(before, state(calendar), "step " + k + " changed the calendar without writing a record");
+        }
+    }
+
+    @Test
+    void rollsBackAnOperationThatCannotBeWritten(@TempDir Path directory) throws IOException {
+        ReviewCalendar reference = reference(CalendarBackend.HASHED);
+        try(FailingCalendar calendar = PersistentCalendar.open(new FailingCalendar(directory))) {
+            run(calendar, 0, 40);
+            calendar.checkpoint();
+            run(calendar, 40, 60);
+            run(reference, 0, 60);
+            //Failed steps are rolled back and never happen; the rest carry on from there.
+            for(int k = 60; k < 100; k++) {
+                if(k % 5 == 0) {
+                    int failed = failStep(calendar, k);
+                    assertEquals(state(reference), state(calendar), "step " + failed);
+                    run(reference, k, failed);
+                    k = failed;
+                    continue;
+                }
+                step(calendar, k);
+                step(reference, k);
+            }
+            assertEquals(state(reference), state(calendar));
+        }
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.HASHED, false)) {
+            assertEquals(state(reference), state(calendar));
+        }
+    }
+
+    @Test
+    void closesWhenItCannotRollBack(@TempDir Path directory) throws IOException {
+        List<String> expected = states(CalendarBackend.HASHED, 60);
+        try(FailingCalendar calendar = PersistentCalendar.open(new FailingCalendar(directory))) {
+            run(calendar, 0, 50);
+            calendar.journal.failTruncates = true;
+            failStep(calendar, 50);
+            assertThrows(IllegalStateException.class, () -> calendar.addWithSpacing(new Question("Late", 0, 1 << 20), new Date(0),
+                    Workload.CROWDED[0]));
+            assertThrows(IllegalStateException.class, calendar::checkpoint);
+        }
+        //The half-written record is cut off when the calendar is opened again.
+        try(PersistentCalendar calendar = open(directory, CalendarBackend.HASHED, false)) {
+            assertEquals(expected.get(50), state(calendar));
+        }
+    }
+
+    @Test
+    @Timeout(300)
+    void recoversFromKillDashNine(@TempDir Path directory) throws IOException, InterruptedException {
+        for(CalendarBackend backend : CalendarBackend.values()) {
+            Path dir = directory.resolve(backend.name());
+            List<String> expected = states(backend, STEPS);
+            Random random = new Random(backend.ordinal());
+            int done = 0;
+            for(int round = 0; round < 6; round++) {
+                int killAt = done + 5 + random.nextInt(40);
+                Process child = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"), JournalWriter.class.getName(), dir.toString(),
+                        backend.name(), Integer.toString(done), Integer.toString(STEPS))
+                        .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                int acked = done;
+                try(BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while(acked < killAt && (line = out.readLine()) != null) {
+                        acked = Integer.parseInt(line.substring("ack ".length()));
+                    }
+                    child.destroyForcibly();
+                    child.waitFor();
+                }
+                if(acked < killAt) fail(backend + ", round " + round + ": the child exited before step " + killAt);
+                try(PersistentCalendar calendar = open(dir, backend, true)) {
+                    String state = state(calendar);
+                    int recovered = -1;
+                    for(int k = acked; k < expected.size() && recovered < 0; k++) {
+                        if(expected.get(k).equals(state)) {
+                            recovered = k;
+                        }
+                    }
+                    assertTrue(recovered >= 0, backend + ", round " + round + ": recovered no state at or after step " + acked);
+                    done = recovered;
+                }
+            }
+        }
+    }
+}
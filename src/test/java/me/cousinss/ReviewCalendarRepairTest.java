@@ -0,0 +1,55 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//ReviewCalendar only repairs the dates over-filled since its last repair; FullScanCalendar scans every date it holds. Over
+//many random runs the two must give the same days, in the same order, and abandon the same repetitions.
+class ReviewCalendarRepairTest {
+
+    private static final int SEEDS = 300;
+
+    private static void check(SpacedRepetition[] schedules, float readdChance) {
+        for(long seed = 0; seed < SEEDS; seed++) {
+            int maxPerDate = 1 + (int) (seed % 5);
+            int days = 30 + (int) (seed % 40);
+            int cutoff = days + (int) (seed % 7) * 5;
+            Workload workload = new Workload(seed, days, maxPerDate, schedules, readdChance, false);
+            for(Workload.Policy policy : Workload.Policy.values()) {
+                for(DayOrder order : DayOrder.values()) {
+                    FullScanCalendar expected = new FullScanCalendar(maxPerDate, cutoff, order, policy, seed);
+                    String expectedDays = workload.run(expected);
+                    for(CalendarBackend backend : CalendarBackend.values()) {
+                        String run = "seed " + seed + ", " + policy + ", " + order + ", " + backend;
+                        ReviewCalendar calendar = Workload.calendar(maxPerDate, cutoff, backend, order, false, policy, seed);
+                        CalendarMetrics metrics = new CalendarMetrics();
+                        calendar.setMetrics(metrics);
+                        assertEquals(expectedDays, workload.run(Workload.target(calendar)), run);
+                        assertEquals(expected.numAdded, calendar.getNumAdded(), run);
+                        assertEquals(expected.numAbandoned, calendar.getNumAbandoned(), run);
+                        //Without an abandon policy, abandonRepair makes every abandon decision.
+                        assertEquals(expected.numAbandoned, metrics.get(CalendarMetrics.Counter.ABANDONED_BY_CALLBACK), run);
+                        assertEquals(0, metrics.get(CalendarMetrics.Counter.ABANDONED_BY_POLICY), run);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesFullScanWithDuplicates() {
+        check(Workload.CROWDED, 0.1f);
+    }
+
+    @Test
+    void matchesFullScanWithSparseSchedules() {
+        check(Workload.SPARSE, 0);
+    }
+}
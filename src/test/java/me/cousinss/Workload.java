@@ -0,0 +1,178 @@
+/*
+ By Samuel Cousins,
+ For SmartWithIt pilot, August 2025
+ All rights to SmartWithIt, Inc.
+ */
+
+package me.cousinss;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+//A seeded random run of lesson adds (some re-adding earlier questions), skips and reads, for replaying against calendars
+//that should agree day for day. Each run draws the same steps from the seed, and writes out every day it reads, so two
+//calendars agree if their transcripts are equal.
+final class Workload {
+
+    //Schedules with repeated offsets, so questions land on top of themselves as well as on each other.
+    static final SpacedRepetition[] CROWDED = {
+            new StaticSpacedRepetition(0, 1, 2, 5, 8, 14),
+            new StaticSpacedRepetition(0, 2, 3, 7),
+            new StaticSpacedRepetition(1, 1, 4),
+            new StaticSpacedRepetition(0, 3, 3, 3, 9)
+    };
+    //Schedules whose repetitions are far apart, so a question only lands on itself after being delayed a long way.
+    static final SpacedRepetition[] SPARSE = {
+            new StaticSpacedRepetition(0, 9, 25, 60),
+            new StaticSpacedRepetition(0, 13, 40)
+    };
+
+    //What a run needs of a calendar.
+    interface Target {
+        void addWithSpacing(Question question, Date dateBasis, SpacedRepetition spacing);
+
+        void addAllWithSpacing(Collection<? extends Question> questions, Date dateBasis, SpacedRepetition spacing);
+
+        int count(Date date);
+
+        void skip(Date date, int fromQuestion);
+
+        Collection<SpacedQuestion> getForDate(Date date);
+    }
+
+    //Decides abandonRepair for a test calendar.
+    enum Policy {
+        NEVER,
+        //A function of the arguments alone.
+        ARGUMENTS,
+        //Draws from the calendar's own random stream, so it also depends on the order it is asked in.
+        RANDOM;
+
+        boolean abandon(Random random, SpacedQuestion question, Date date, int daysLate) {
+            return switch(this) {
+                case NEVER -> false;
+                case ARGUMENTS -> daysLate >= 2 && (question.getId() * 31 + question.getSpaceID() * 7 + date.datePoint()) % 3 == 0;
+                case RANDOM -> random.nextFloat() * (daysLate - 3) / 3 > 0.5f;
+            };
+        }
+    }
+
+    static Target target(ReviewCalendar calendar) {
+        return new Target() {
+            @Override
+            public void addWithSpacing(Question question, Date dateBasis, SpacedRepetition spacing) {
+                calendar.addWithSpacing(question, dateBasis, spacing);
+            }
+
+            @Override
+            public void addAllWithSpacing(Collection<? extends Question> questions, Date dateBasis, SpacedRepetition spacing) {
+                calendar.addAllWithSpacing(questions, dateBasis, spacing);
+            }
+
+            @Override
+            public int count(Date date) {
+                return calendar.count(date);
+            }
+
+            @Override
+            public void skip(Date date, int fromQuestion) {
+                calendar.skip(date, fromQuestion);
+            }
+
+            @Override
+            public Collection<SpacedQuestion> getForDate(Date date) {
+                return calendar.getForDate(date);
+            }
+        };
+    }
+
+    //A calendar deciding abandonRepair by the policy, from a stream seeded by the seed.
+    static ReviewCalendar calendar(int maxPerDate, int cutoff, CalendarBackend backend, DayOrder order, boolean lazy,
+                                   Policy policy, long seed) {
+        Random random = new Random(seed);
+        return new ReviewCalendar(maxPerDate, new Date(cutoff), backend, order, lazy) {
+            @Override
+            public boolean abandonRepair(SpacedQuestion question, Date date, int daysLate) {
+                return policy.abandon(random, question, date, daysLate);
+            }
+        };
+    }
+
+    private final long seed;
+    private final int days;
+    private final int maxPerDate;
+    private final SpacedRepetition[] schedules;
+    private final float readdChance;
+    private final boolean readAhead;
+    private final List<Question> questions = new ArrayList<>();
+    private final IdAllocator ids = new IdAllocator(0);
+
+    //readdChance is the chance each question of a lesson is instead an earlier question added again; readAhead also reads
+    //days up to three weeks ahead as the run goes.
+    Workload(long seed, int days, int maxPerDate, SpacedRepetition[] schedules, float readdChance, boolean readAhead) {
+        this.seed = seed;
+        this.days = days;
+        this.maxPerDate = maxPerDate;
+        this.schedules = schedules;
+        this.readdChance = readdChance;
+        this.readAhead = readAhead;
+    }
+
+    //The same question every run, so that runs share them.
+    private Question question(int n, int lessonID) {
+        while(questions.size() <= n) {
+            questions.add(new Question("Q" + questions.size(), lessonID, ids));
+        }
+        return questions.get(n);
+    }
+
+    String run(Target target) {
+        Random random = new Random(seed);
+        StringBuilder transcript = new StringBuilder();
+        int numQuestions = 0;
+        int lessonID = 0;
+        for(int day = 0; day < days; day++) {
+            if(random.nextBoolean()) {
+                List<Question> lesson = new ArrayList<>();
+                int size = 1 + random.nextInt(2 * maxPerDate);
+                SpacedRepetition schedule = schedules[random.nextInt(schedules.length)];
+                Date basis = new Date(day + (random.nextFloat() < 0.2f ? random.nextInt(5) : 0));
+                for(int i = 0; i < size; i++) {
+                    lesson.add(numQuestions > 0 && random.nextFloat() < readdChance
+                            ? questions.get(random.nextInt(numQuestions)) : question(numQuestions++, lessonID));
+                }
+                lessonID++;
+                if(random.nextBoolean()) {
+                    target.addAllWithSpacing(lesson, basis, schedule);
+                } else {
+                    for(Question question : lesson) {
+                        target.addWithSpacing(question, basis, schedule);
+                    }
+                }
+            }
+            if(readAhead && random.nextFloat() < 0.3f) {
+                read(target, day + random.nextInt(21), transcript.append("ahead "));
+            }
+            int count = target.count(new Date(day));
+            if(count > 0 && random.nextFloat() < 0.4f) {
+                target.skip(new Date(day), random.nextInt(count));
+            }
+            read(target, day, transcript);
+        }
+        //Then every day a repetition can have been delayed on to.
+        for(int day = 0; day < days + 60; day++) {
+            read(target, day, transcript.append("end "));
+        }
+        return transcript.toString();
+    }
+
+    private static void read(Target target, int day, StringBuilder transcript) {
+        transcript.append(day).append(':');
+        for(SpacedQuestion question : target.getForDate(new Date(day))) {
+            transcript.append(' ').append(question.getId()).append('/').append(question.getSpaceID());
+        }
+        transcript.append('\n');
+    }
+}